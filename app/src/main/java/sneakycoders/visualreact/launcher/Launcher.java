@@ -7,6 +7,7 @@ import android.support.v7.app.AppCompatActivity;
 import android.view.View;
 
 import sneakycoders.visualreact.R;
+import sneakycoders.visualreact.match.Calibration;
 import sneakycoders.visualreact.match.Match;
 import sneakycoders.visualreact.preferences.Preferences;
 
@@ -29,6 +30,12 @@ public class Launcher extends AppCompatActivity {
         startActivity(intent);
     }
 
+    public void switchToCalibration(@SuppressWarnings("UnusedParameters") View view) {
+        // Switch to Calibration screen
+        Intent intent = new Intent(Launcher.this, Calibration.class);
+        startActivity(intent);
+    }
+
     public void switchToMatch(@SuppressWarnings("UnusedParameters") View view) {
         // Switch to Match screen
         Intent intent = new Intent(Launcher.this, Match.class);
@@ -0,0 +1,70 @@
+package sneakycoders.visualreact.level;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs the frame ticks of a level once per frame, aligned to the display refresh
+public class FrameScheduler {
+    // Frame scheduler of the display
+    private final Choreographer choreographer;
+    // Clock of the match (frame times are passed in match time)
+    private final MatchClock clock;
+    // Callback for each frame
+    private final Choreographer.FrameCallback frameCallback;
+    // Registered ticks
+    private final List<FrameTick> ticks;
+    // Flag to see if the frames are requested
+    private boolean running;
+
+    public FrameScheduler(MatchClock clock) {
+        this.clock = clock;
+        choreographer = Choreographer.getInstance();
+        frameCallback = this::doFrame;
+        ticks = new ArrayList<>();
+        running = false;
+    }
+
+    public void add(FrameTick tick) {
+        ticks.add(tick);
+    }
+
+    public void remove(FrameTick tick) {
+        ticks.remove(tick);
+    }
+
+    public void start() {
+        if (!running && !ticks.isEmpty()) {
+            running = true;
+            choreographer.postFrameCallback(frameCallback);
+        }
+    }
+
+    public void stop() {
+        running = false;
+        choreographer.removeFrameCallback(frameCallback);
+    }
+
+    public void cancelAll() {
+        stop();
+        ticks.clear();
+    }
+
+    private void doFrame(long frameTimeNanos) {
+        // Request the next frame first, ticks may stop the scheduler
+        choreographer.postFrameCallback(frameCallback);
+
+        // Frame times use the monotonic clock
+        long frameTime = clock.toMatchTime(frameTimeNanos);
+        for (int i = 0; i < ticks.size(); i++) {
+            ticks.get(i).onFrame(frameTime);
+        }
+    }
+
+    // Update of a level for each frame
+    public interface FrameTick {
+        // Time of the frame (match time)
+        void onFrame(long frameTime);
+    }
+}
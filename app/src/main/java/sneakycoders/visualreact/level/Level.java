@@ -1,7 +1,9 @@
 package sneakycoders.visualreact.level;
 
 import android.graphics.Color;
+import android.graphics.RectF;
 import android.os.Bundle;
+import android.os.Handler;
 import android.support.v4.app.Fragment;
 import android.support.v4.content.ContextCompat;
 import android.view.LayoutInflater;
@@ -9,14 +11,18 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import sneakycoders.visualreact.R;
+import sneakycoders.visualreact.level.model.Box;
+import sneakycoders.visualreact.level.model.LevelModel;
+import sneakycoders.visualreact.level.model.LevelParameters;
 
 abstract public class Level extends Fragment {
+    // Value of the stimulus onset while the success condition is not met
+    public static final long NO_STIMULUS_ONSET = LevelModel.NO_STIMULUS_ONSET;
     // Basic colors
     protected int successColor;
     protected int failColor;
@@ -24,14 +30,47 @@ abstract public class Level extends Fragment {
     protected int failLightColor;
     // Random number generator
     private Random random;
+    // Random number generator of the game logic (independent of the colors drawn by the views)
+    private Random modelRandom;
+    // Game logic of the level
+    private LevelModel model;
+    // Clock of the match
+    private MatchClock clock;
+    // Handler for the scheduled updates
+    private Handler handler;
+    // Updates scheduled and not run yet (kept to post them again after a pause)
+    private List<ScheduledUpdate> scheduledUpdates;
+    // Scheduler for the updates on each frame
+    private FrameScheduler frameScheduler;
+    // Flag to see if the level is paused
+    private boolean paused;
 
-    // Callback when then player taps its area
-    abstract public boolean onPlayerTap();
+    // Callback when then player taps its area, with the time of the touch (match time)
+    abstract public boolean onPlayerTap(long eventTime);
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-        // Initialize the random number generator
-        random = new Random();
+        // Levels created outside of a match draw from an unseeded generator
+        if (random == null) {
+            random = new SplitMix64(System.nanoTime());
+        }
+
+        // The game logic draws first, so that it only depends on the seed of the round
+        modelRandom = new SplitMix64(random.nextLong());
+
+        // No game logic yet
+        model = null;
+
+        // Levels created outside of a match run on their own clock
+        if (clock == null) {
+            clock = new MatchClock();
+        }
+
+        // Initialize scheduling
+        handler = new Handler();
+        scheduledUpdates = new ArrayList<>();
+        frameScheduler = new FrameScheduler(clock);
+        paused = false;
 
         // Set colors
         successColor = ContextCompat.getColor(getActivity(), R.color.success_primary);
@@ -42,6 +81,143 @@ abstract public class Level extends Fragment {
         return super.onCreateView(inflater, container, savedInstanceState);
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+
+        // Stop the scheduled updates, they are posted again on resume
+        paused = true;
+        handler.removeCallbacksAndMessages(null);
+        frameScheduler.stop();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+
+        // Continue where we left off (the clock does not advance while the match is paused)
+        if (paused) {
+            paused = false;
+            for (ScheduledUpdate update : scheduledUpdates) {
+                post(update);
+            }
+            frameScheduler.start();
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        // Remove all callbacks
+        cancelScheduled();
+    }
+
+    public void setRandom(Random random) {
+        // Generator of the round, to make it reproducible
+        this.random = random;
+    }
+
+    public void setClock(MatchClock clock) {
+        this.clock = clock;
+    }
+
+    public MatchClock getClock() {
+        return clock;
+    }
+
+    protected long now() {
+        return clock.now();
+    }
+
+    protected void scheduleAt(Runnable update, long time) {
+        // Run the update at an absolute match time, so that periodic updates do not accumulate delays
+        ScheduledUpdate scheduledUpdate = new ScheduledUpdate(update, time);
+        scheduledUpdates.add(scheduledUpdate);
+        if (!paused) {
+            post(scheduledUpdate);
+        }
+    }
+
+    protected void addFrameTick(FrameScheduler.FrameTick tick) {
+        // Run the tick on every frame, with the frame time (match time)
+        frameScheduler.add(tick);
+        if (!paused) {
+            frameScheduler.start();
+        }
+    }
+
+    protected void cancelScheduled() {
+        // Cancel every scheduled update and frame tick (scheduling is initialized with the view)
+        if (handler != null) {
+            handler.removeCallbacksAndMessages(null);
+            scheduledUpdates.clear();
+            frameScheduler.cancelAll();
+        }
+    }
+
+    private void post(ScheduledUpdate update) {
+        // Uptime shares the monotonic time base, round up so that updates never run before they are due
+        long uptime = clock.toMonotonicTime(update.time) + TimeUnit.MILLISECONDS.toNanos(1) - 1;
+        handler.postAtTime(update, TimeUnit.NANOSECONDS.toMillis(uptime));
+    }
+
+    protected LevelParameters getParameters() {
+        return new ResourceParameters(getResources(), getActivity().getPackageName());
+    }
+
+    protected Random getModelRandom() {
+        return modelRandom;
+    }
+
+    protected void runModel(final LevelModel model, float width, float height, final Runnable redraw) {
+        // Start the game logic now, with the size of the view
+        this.model = model;
+        long startTime = now();
+        model.start(width, height, startTime);
+        model.advanceTo(startTime);
+        redraw.run();
+
+        // Continuous models are advanced on every frame, the rest when their next update is due
+        if (model.isContinuous()) {
+            addFrameTick(frameTime -> {
+                model.advanceTo(frameTime);
+                redraw.run();
+            });
+        } else {
+            scheduleModelUpdate(redraw);
+        }
+    }
+
+    private void scheduleModelUpdate(final Runnable redraw) {
+        final long updateTime = model.getNextUpdateTime();
+        if (updateTime != LevelModel.NO_UPDATE) {
+            scheduleAt(() -> {
+                model.advanceTo(updateTime);
+                redraw.run();
+                scheduleModelUpdate(redraw);
+            }, updateTime);
+        }
+    }
+
+    public boolean hasStimulusOnset() {
+        return (model != null) && model.hasStimulusOnset();
+    }
+
+    public long getStimulusOnset() {
+        return (model != null) ? model.getStimulusOnset() : NO_STIMULUS_ONSET;
+    }
+
+    public boolean isStimulusOnsetPresented() {
+        return (model != null) && model.isStimulusOnsetPresented();
+    }
+
+    protected static RectF toRectF(Box box, RectF rect) {
+        // Drawing needs the platform rectangle
+        rect.set(box.left, box.top, box.right, box.bottom);
+        return rect;
+    }
+
     protected Integer getRandomColor() {
         return randomColorIn(R.array.palette);
     }
@@ -51,8 +227,7 @@ abstract public class Level extends Fragment {
     }
 
     private Integer randomColorIn(int id) {
-        String[] palette = getResources().getStringArray(id);
-        return Color.parseColor(palette[random.nextInt(palette.length)]);
+        return getPalette(id).randomColor(random);
     }
 
     protected Integer[] getRandomColors(int n) {
@@ -64,49 +239,35 @@ abstract public class Level extends Fragment {
     }
 
     private Integer[] randomColorsIn(int id, int n) {
-        // Initialize lists
-        List<String> hexPalette = Arrays.asList(getResources().getStringArray(id));
-        List<Integer> palette = new ArrayList<>();
-        List<Integer> colors = new ArrayList<>();
-
-        // Get colors
-        for (String hex : hexPalette) {
-            palette.add(Color.parseColor(hex));
-        }
-
-        // Fill colors
-        int i = 0;
-        while (i != n) {
-            Collections.shuffle(palette);
-            int addN = Math.min(n - i, palette.size());
-            colors.addAll(palette.subList(0, addN));
-            i += addN;
-        }
-
-        return colors.toArray(new Integer[n]);
-    }
-
-    protected int randomInt(int idMin, int idMax) {
-        int min = getResources().getInteger(idMin);
-        int max = getResources().getInteger(idMax);
-        return randomInInterval(min, max);
+        return getPalette(id).randomColors(n, random);
     }
 
-    protected float randomFloat(int idMin, int idMax) {
-        float min = getResources().getFraction(idMin, 1, 1);
-        float max = getResources().getFraction(idMax, 1, 1);
-        return randomInInterval(min, max);
+    private Palette getPalette(int id) {
+        // Parse the colors of the palette
+        String[] hexPalette = getResources().getStringArray(id);
+        int[] colors = new int[hexPalette.length];
+        for (int i = 0; i < hexPalette.length; i++) {
+            colors[i] = Color.parseColor(hexPalette[i]);
+        }
+        return new Palette(colors);
     }
 
-    protected boolean randomBoolean() {
-        return random.nextBoolean();
-    }
+    // Update scheduled at a given match time
+    private class ScheduledUpdate implements Runnable {
+        // Update to run
+        private final Runnable update;
+        // Time when it is due (match time)
+        private final long time;
 
-    protected int randomInInterval(int min, int max) {
-        return random.nextInt(max - min + 1) + min;
-    }
+        ScheduledUpdate(Runnable update, long time) {
+            this.update = update;
+            this.time = time;
+        }
 
-    protected float randomInInterval(float min, float max) {
-        return (float) (min + (max - min) * random.nextDouble());
+        @Override
+        public void run() {
+            scheduledUpdates.remove(this);
+            update.run();
+        }
     }
 }
@@ -7,8 +7,8 @@ import android.preference.PreferenceManager;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.levels.LevelColor;
@@ -22,54 +22,14 @@ public class LevelsFactory {
     private static final String LEVEL_NAME_FORMAT = "level_{0}_name";
     private static final String LEVEL_DESCRIPTION_FORMAT = "level_{0}_description";
 
-    public static List<String> getLevelsSequence(Context c) {
+    public static List<String> getLevelsSequence(Context c, Random random) {
         // Preferences
         SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(c);
 
-        // Selected levels in random order
-        List<String> selectedLevels = getSelectedLevelIds(c);
-        Collections.shuffle(selectedLevels);
-
-        // Prevent repeating sequences of levels if not every level has been used yet
-        List<String> usedLevels = new ArrayList<>();
-
-        // Calculate number of rounds
+        // Selected levels, in random order without repeating a level before every one has been played
         int levelsPerMatch = preferences.getInt("levels_per_match", 1);
         int roundsPerLevel = preferences.getInt("rounds_per_level", 1);
-        int totalRounds = levelsPerMatch * roundsPerLevel;
-        List<String> roundsSequence = new ArrayList<>();
-
-        // Fill the levels sequence
-        while (roundsSequence.size() != totalRounds) {
-            // Reset lists if needed
-            if (selectedLevels.size() == 0) {
-                // Restore selected levels
-                selectedLevels = new ArrayList<>(usedLevels);
-
-                // Random order
-                Collections.shuffle(selectedLevels);
-
-                // Prevent same level being the last of one sequence and first of the next one
-                if (selectedLevels.get(0).equals(usedLevels.get(usedLevels.size() - 1))) {
-                    String last = selectedLevels.remove(0);
-                    selectedLevels.add(last);
-                }
-
-                // Empty used levels
-                usedLevels = new ArrayList<>();
-            }
-
-            // Keep track of added levels
-            String level = selectedLevels.remove(0);
-            usedLevels.add(level);
-
-            // Add new rounds of selected level
-            for (int i = 0; i < roundsPerLevel; i++) {
-                roundsSequence.add(level);
-            }
-        }
-
-        return roundsSequence;
+        return LevelsSequence.create(getSelectedLevelIds(c), levelsPerMatch, roundsPerLevel, random);
     }
 
     public static List<String> getSelectedLevelIds(Context c) {
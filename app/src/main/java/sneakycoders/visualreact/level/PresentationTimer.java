@@ -0,0 +1,54 @@
+package sneakycoders.visualreact.level;
+
+import android.view.Choreographer;
+
+// Notifies when the changes made to the views are presented on the screen
+// The next frame draws the changes, and they are presented when the frame after it starts
+public class PresentationTimer {
+    // Frame scheduler
+    private final Choreographer choreographer;
+    // Frame that draws the changes
+    private final Choreographer.FrameCallback drawFrame;
+    // Frame that starts when the changes are presented
+    private final Choreographer.FrameCallback presentFrame;
+    // Callback for the current request
+    private OnPresentedListener listener;
+    // Time when the current request was made (System.nanoTime() time base)
+    private long requestTime;
+    // Time between the last request and its presentation, in nanoseconds
+    private long presentationDelay;
+
+    public PresentationTimer() {
+        choreographer = Choreographer.getInstance();
+        presentFrame = frameTimeNanos -> {
+            presentationDelay = frameTimeNanos - requestTime;
+            listener.onPresented(frameTimeNanos);
+        };
+        drawFrame = frameTimeNanos -> choreographer.postFrameCallback(presentFrame);
+    }
+
+    public void request(OnPresentedListener listener) {
+        // Cancel the previous request, if any
+        cancel();
+
+        // Wait for the next frame
+        this.listener = listener;
+        requestTime = System.nanoTime();
+        choreographer.postFrameCallback(drawFrame);
+    }
+
+    public void cancel() {
+        choreographer.removeFrameCallback(drawFrame);
+        choreographer.removeFrameCallback(presentFrame);
+    }
+
+    public long getPresentationDelay() {
+        return presentationDelay;
+    }
+
+    // Callback when the changes are on the screen
+    public interface OnPresentedListener {
+        // Presentation time (System.nanoTime() time base)
+        void onPresented(long presentationTime);
+    }
+}
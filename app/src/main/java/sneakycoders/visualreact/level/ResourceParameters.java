@@ -0,0 +1,28 @@
+package sneakycoders.visualreact.level;
+
+import android.content.res.Resources;
+
+import sneakycoders.visualreact.level.model.LevelParameters;
+
+// Constants of the levels read from the app resources
+class ResourceParameters implements LevelParameters {
+    // Resources of the app
+    private final Resources resources;
+    // Package of the resources
+    private final String packageName;
+
+    ResourceParameters(Resources resources, String packageName) {
+        this.resources = resources;
+        this.packageName = packageName;
+    }
+
+    @Override
+    public int getInteger(String name) {
+        return resources.getInteger(resources.getIdentifier(name, "integer", packageName));
+    }
+
+    @Override
+    public float getFraction(String name) {
+        return resources.getFraction(resources.getIdentifier(name, "fraction", packageName), 1, 1);
+    }
+}
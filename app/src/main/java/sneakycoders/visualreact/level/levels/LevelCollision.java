@@ -5,7 +5,6 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.os.Bundle;
-import android.os.Handler;
 import android.support.v4.content.ContextCompat;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -13,22 +12,19 @@ import android.view.ViewGroup;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.model.Box;
+import sneakycoders.visualreact.level.model.CollisionModel;
+import sneakycoders.visualreact.level.model.CollisionModel.ShapeType;
 
 // Dynamically instantiated
 @SuppressWarnings("unused")
 public class LevelCollision extends Level {
-    // Shapes
-    private RectF firstShape;
-    private RectF secondShape;
-    // Shape Types
-    private ShapeType firstShapeType;
-    private ShapeType secondShapeType;
-    // Middle block
-    private RectF middleBlock;
-    // Timer handler
-    private Handler handler;
-    // Update function (to move the shapes)
-    private Runnable updateShapes;
+    // Game logic
+    private CollisionModel model;
+    // Flag to see if the middle block is shown
+    private boolean middleBlockShown;
+    // Rectangle to draw the shapes (reused on each frame)
+    private RectF drawRect;
     // Colors
     private Paint firstShapePaint;
     private Paint secondShapePaint;
@@ -42,9 +38,9 @@ public class LevelCollision extends Level {
         super.onCreateView(inflater, container, savedInstanceState);
 
         // Set initial state
-        handler = new Handler();
-        firstShape = null;
-        secondShape = null;
+        model = new CollisionModel(getParameters(), getModelRandom());
+        middleBlockShown = true;
+        drawRect = new RectF();
 
         // Set colors
         Integer[] shapeColors = getRandomColors(2);
@@ -63,70 +59,25 @@ public class LevelCollision extends Level {
     }
 
     @Override
-    public boolean onPlayerTap() {
+    public boolean onPlayerTap(long eventTime) {
         // Check initialization
-        if ((rootView == null) || (firstShape == null) || (secondShape == null)) {
+        if ((rootView == null) || !model.isStarted()) {
             return false;
         }
 
         // Stop animation
-        handler.removeCallbacksAndMessages(null);
+        cancelScheduled();
+
+        // Check collision at the moment of the tap
+        boolean result = model.onPlayerTap(eventTime);
 
         // Remove middle block
-        middleBlock = null;
+        middleBlockShown = false;
 
         // Redraw
         rootView.invalidate();
 
-        // Check collision
-        return shapesCollide();
-    }
-
-    private boolean shapesCollide() {
-        // Two circles
-        if ((firstShapeType == ShapeType.Circle) && (secondShapeType == ShapeType.Circle)) {
-            // Calculate centers and radius
-            float distCentersX = firstShape.centerX() - secondShape.centerX();
-            float distCentersY = firstShape.centerY() - secondShape.centerY();
-            float distCentersSq = distCentersX * distCentersX + distCentersY * distCentersY;
-            float radiusLeft = firstShape.width() / 2.0f;
-            float radiusRight = secondShape.width() / 2.0f;
-
-            // Collide if sum of radius is less than the distance between centers
-            float sumRadius = radiusLeft + radiusRight;
-            return (distCentersSq <= (sumRadius * sumRadius));
-        }
-        // Two rectangles
-        else if ((firstShapeType == ShapeType.Rectangle) && (secondShapeType == ShapeType.Rectangle)) {
-            return RectF.intersects(firstShape, secondShape);
-        }
-        // Circle and rectangle
-        else {
-            // Calculate center and radius
-            boolean firstIsCircle = (firstShapeType == ShapeType.Circle);
-            RectF circle = firstIsCircle ? firstShape : secondShape;
-            float centerX = circle.centerX();
-            float centerY = circle.centerY();
-            float radius = circle.width() / 2.0f;
-
-            // Select rectangle
-            RectF rect = firstIsCircle ? secondShape : firstShape;
-
-            // Find the closest point to the circle within the rectangle
-            // Closest to centerX in [rect.left, rect.right]
-            float closestX = ((centerX >= rect.left) && (centerX <= rect.right)) ? centerX : (centerX < rect.left ? rect.left : rect.right);
-
-            // Closest to centerY in [rect.top, rect.bottom]
-            float closestY = ((centerY >= rect.top) && (centerY <= rect.bottom)) ? centerY : (centerY < rect.top ? rect.top : rect.bottom);
-
-            // Calculate the distance between the circle's center and this closest point
-            float distX = centerX - closestX;
-            float distY = centerY - closestY;
-            float distSq = (distX * distX) + (distY * distY);
-
-            // Collide if the distance is less than the circle's radius
-            return (distSq <= (radius * radius));
-        }
+        return result;
     }
 
     private void initializeShapes() {
@@ -134,128 +85,16 @@ public class LevelCollision extends Level {
         int width = rootView.getMeasuredWidth();
         int height = rootView.getMeasuredHeight();
 
-        // Margin from extremes
-        float margin = width * getResources().getFraction(R.fraction.level_collision_margin_extremes, 1, 1);
-
-        // Dimension variables (reused for both shapes)
-        float shapeWidth;
-        float shapeHeight;
-        float top;
-
-        // Shape local variables (before choosing which one is rendered first)
-        final RectF leftShape;
-        final RectF rightShape;
-
-        // Choose shape combination
-        ShapeType leftShapeType = randomBoolean() ? ShapeType.Circle : ShapeType.Rectangle;
-        ShapeType rightShapeType = randomBoolean() ? ShapeType.Circle : ShapeType.Rectangle;
-
-        // Choose dimensions of the left shape
-        // Circle
-        if (leftShapeType == ShapeType.Circle) {
-            float diameter = 2.0f * height * randomFloat(R.fraction.level_collision_min_radius, R.fraction.level_collision_max_radius);
-            shapeWidth = diameter;
-            shapeHeight = diameter;
-            top = (height - diameter) / 2.0f;
-        }
-        // Rectangle
-        else {
-            shapeWidth = height * randomFloat(R.fraction.level_collision_min_side, R.fraction.level_collision_max_side);
-            shapeHeight = height * randomFloat(R.fraction.level_collision_min_side, R.fraction.level_collision_max_side);
-            top = (height - shapeHeight) / 2.0f;
-        }
-
-        // Save the starting point and distance the left shape can travel (in the X axis)
-        final float leftShapeStart = margin;
-        final float leftTotalDistance = width - (2.0f * margin) - shapeWidth;
-
-        // Create the left shape
-        leftShape = new RectF(margin, top, margin + shapeWidth, top + shapeHeight);
-
-        // Choose dimensions of the right shape
-        // Circle
-        if (rightShapeType == ShapeType.Circle) {
-            float diameter = 2.0f * height * randomFloat(R.fraction.level_collision_min_radius, R.fraction.level_collision_max_radius);
-            shapeWidth = diameter;
-            shapeHeight = diameter;
-            top = (height - diameter) / 2.0f;
-        }
-        // Rectangle
-        else {
-            shapeWidth = height * randomFloat(R.fraction.level_collision_min_side, R.fraction.level_collision_max_side);
-            shapeHeight = height * randomFloat(R.fraction.level_collision_min_side, R.fraction.level_collision_max_side);
-            top = (height - shapeHeight) / 2.0f;
-        }
-
-        // Save the starting point and distance the left shape can travel (in the X axis)
-        final float rightShapeStart = width - margin - shapeWidth;
-        final float rightTotalDistance = width - (2.0f * margin) - shapeWidth;
-
-        // Create the right shape
-        rightShape = new RectF(rightShapeStart, top, width - margin, top + shapeHeight);
-
-        // Small variations on height, while ensuring collision
-        float avgHeight = (leftShape.height() + rightShape.height()) / 2.0f;
-        float maxDiffHeight = avgHeight * (1.0f - getResources().getFraction(R.fraction.level_collision_min_shape_collision_height, 1, 1));
-
-        // Calculate variation, with random Y axis direction
-        float variationHeight = randomInInterval(-maxDiffHeight, maxDiffHeight) / 2.0f;
-        leftShape.offset(0, variationHeight);
-        rightShape.offset(0, -variationHeight);
-
-        // Set the movement
-        final int delay = 1000 / getResources().getInteger(R.integer.level_collision_frames_per_second);
-        final long moveTime = randomInt(R.integer.level_collision_min_move_time, R.integer.level_collision_max_move_time);
-        final long startTime = System.currentTimeMillis();
-        updateShapes = () -> {
-            // Time since we started the animation, modulo two times moveTime
-            // First we go straight, then backwards
-            long roundTripTime = 2 * moveTime;
-            long elapsedTime = (System.currentTimeMillis() - startTime) % roundTripTime;
-
-            // Calculate offset in percentage (from 0% to 100%)
-            float offset = ((elapsedTime < moveTime) ? elapsedTime : (roundTripTime - elapsedTime)) / (float) moveTime;
-            float leftNewTop = leftShapeStart + offset * leftTotalDistance;
-            leftShape.offsetTo(leftNewTop, leftShape.top);
-            float rightNewTop = rightShapeStart - offset * rightTotalDistance;
-            rightShape.offsetTo(rightNewTop, rightShape.top);
-
-            // Redraw
-            rootView.invalidate();
-
-            // Update again after the delay
-            handler.postDelayed(updateShapes, delay);
-        };
-
-        // Choose which one is drawn first so that the small shape is always visible
-        boolean drawLeftFirst = (Math.min(leftShape.width(), leftShape.height()) >= Math.min(rightShape.width(), rightShape.height()));
-        firstShape = drawLeftFirst ? leftShape : rightShape;
-        secondShape = drawLeftFirst ? rightShape : leftShape;
-        firstShapeType = drawLeftFirst ? leftShapeType : rightShapeType;
-        secondShapeType = drawLeftFirst ? rightShapeType : leftShapeType;
-
-        // Set timer to call the movement function
-        handler.postDelayed(updateShapes, delay);
-
-        // Create middle block
-        float blockWidth = width * randomFloat(R.fraction.level_collision_min_block_width, R.fraction.level_collision_max_block_width);
-        middleBlock = new RectF((width - blockWidth) / 2.0f, 0, (width + blockWidth) / 2.0f, height);
-
-        // Redraw
-        rootView.invalidate();
+        // Move the shapes on every frame
+        runModel(model, width, height, rootView::invalidate);
     }
 
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-
-        // Cancel animation
-        handler.removeCallbacksAndMessages(null);
-    }
-
-    // Shape combinations
-    private enum ShapeType {
-        Circle, Rectangle
+    private void drawShape(Canvas canvas, Box shape, ShapeType shapeType, Paint paint) {
+        if (shapeType == ShapeType.Circle) {
+            canvas.drawOval(toRectF(shape, drawRect), paint);
+        } else {
+            canvas.drawRect(toRectF(shape, drawRect), paint);
+        }
     }
 
     private class LevelCollisionView extends View {
@@ -266,7 +105,7 @@ public class LevelCollision extends Level {
         @Override
         protected void onDraw(Canvas canvas) {
             // Uninitialized
-            if ((firstShape == null) || (secondShape == null)) {
+            if (!model.isStarted()) {
                 initializeShapes();
             }
             // Playing
@@ -275,20 +114,12 @@ public class LevelCollision extends Level {
                 canvas.drawColor(backgroundColor);
 
                 // Draw shapes in order
-                if (firstShapeType == ShapeType.Circle) {
-                    canvas.drawOval(firstShape, firstShapePaint);
-                } else {
-                    canvas.drawRect(firstShape, firstShapePaint);
-                }
-                if (secondShapeType == ShapeType.Circle) {
-                    canvas.drawOval(secondShape, secondShapePaint);
-                } else {
-                    canvas.drawRect(secondShape, secondShapePaint);
-                }
+                drawShape(canvas, model.getFirstShape(), model.getFirstShapeType(), firstShapePaint);
+                drawShape(canvas, model.getSecondShape(), model.getSecondShapeType(), secondShapePaint);
 
                 // Draw middle block if necessary
-                if (middleBlock != null) {
-                    canvas.drawRect(middleBlock, middleBlockPaint);
+                if (middleBlockShown) {
+                    canvas.drawRect(toRectF(model.getMiddleBlock(), drawRect), middleBlockPaint);
                 }
             }
         }
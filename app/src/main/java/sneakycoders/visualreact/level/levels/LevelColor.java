@@ -1,21 +1,27 @@
 package sneakycoders.visualreact.level.levels;
 
 import android.os.Bundle;
-import android.os.Handler;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.PresentationTimer;
+import sneakycoders.visualreact.level.model.ColorModel;
 
 // Dynamically instantiated
 @SuppressWarnings("unused")
 public class LevelColor extends Level {
-    // Flag to see if the result is success or not
-    private boolean result;
-    // Timer handler
-    private Handler handler;
+    // Tag for the log messages
+    private static final String LOG_TAG = "LevelColor";
+    // Game logic
+    private ColorModel model;
+    // Flag to see if the new color is shown
+    private boolean colorShown;
+    // Timer for the moment the color change is on the screen
+    private PresentationTimer presentationTimer;
     // View
     private View rootView;
 
@@ -24,10 +30,11 @@ public class LevelColor extends Level {
         super.onCreateView(inflater, container, savedInstanceState);
 
         // Set initial state
-        result = false;
+        model = new ColorModel(getParameters(), getModelRandom());
+        colorShown = false;
 
-        // Set handler
-        handler = new Handler();
+        // Set presentation timer
+        presentationTimer = new PresentationTimer();
 
         // Countdown color
         final int color = getRandomColor();
@@ -35,38 +42,50 @@ public class LevelColor extends Level {
         // Create view
         rootView = inflater.inflate(R.layout.level_color, container, false);
 
-        // Countdown in milliseconds before switching the color
-        int countdown = randomInt(R.integer.level_color_min_delay, R.integer.level_color_max_delay);
-
-        // Set timer to change screen color
-        handler.postDelayed(() -> {
-            result = true;
-            rootView.setBackgroundColor(color);
-        }, countdown);
+        // Change screen color after the countdown
+        runModel(model, 0, 0, () -> {
+            if (model.isChanged() && !colorShown) {
+                colorShown = true;
+                rootView.setBackgroundColor(color);
+
+                // The stimulus starts once the frame with the new color is presented, not when it is requested
+                presentationTimer.request(presentationTime -> {
+                    model.onFramePresented(getClock().toMatchTime(presentationTime));
+                    if (Log.isLoggable(LOG_TAG, Log.DEBUG)) {
+                        Log.d(LOG_TAG, "Presentation delay: " + (getPresentationDelay() / 1e6) + " ms");
+                    }
+                });
+            }
+        });
 
         return rootView;
     }
 
     @Override
-    public boolean onPlayerTap() {
+    public boolean onPlayerTap(long eventTime) {
         // Check initialization
         if (rootView == null) {
             return false;
         }
 
-        // Cancel callback
-        handler.removeCallbacksAndMessages(null);
+        // Cancel callbacks
+        cancelScheduled();
+        presentationTimer.cancel();
 
-        // Return current result
-        return result;
+        // Success only if the new color was already on the screen when the player tapped
+        return model.onPlayerTap(eventTime);
     }
 
+    // Delay (in nanoseconds) between the request to change the color and its presentation on the screen
+    public long getPresentationDelay() {
+        return presentationTimer.getPresentationDelay();
+    }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
 
-        // Cancel callback
-        handler.removeCallbacksAndMessages(null);
+        // Cancel presentation callback
+        presentationTimer.cancel();
     }
 }
@@ -1,50 +1,68 @@
 package sneakycoders.visualreact.level.levels;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.os.Bundle;
-import android.os.Handler;
 import android.support.v4.content.ContextCompat;
-import android.support.v4.util.Pair;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.model.ConnectionModel;
+import sneakycoders.visualreact.level.model.ConnectionModel.PathType;
 
 // Dynamically instantiated
 @SuppressWarnings("unused")
 public class LevelConnection extends Level {
+    // Indices of the colors of the cells in the palette
+    private static final byte PATH_COLOR = 0;
+    private static final byte SUCCESS_COLOR = 1;
+    private static final byte FAIL_COLOR = 2;
+    // Tile drawn in the cells of the board before the first update
+    private static final byte NO_TILE = -1;
+    // Path types (by ordinal)
+    private static final PathType[] PATH_TYPES = PathType.values();
+    // Game logic
+    private ConnectionModel model;
     // Cells in the X axis
     private int cellsX;
     // Cells in the Y axis
     private int cellsY;
-    // Extremes coordinates (coordinate in the Y axis)
-    private int leftExtremeY;
-    private int rightExtremeY;
-    // Cells
-    private PathCell[][] cells;
-    // Lists of cells that connect both extremes
-    private List<PathCell> pathCells;
-    // List of random cells
-    private List<PathCell> randomCells;
-    // Shapes to identify extremes
-    private RectF leftExtremeShape;
-    private RectF rightExtremeShape;
-    // Colors
-    private Paint[][] cellsPaints;
-    private Paint extremesPaint;
+    // Size of the cells and half of the width of the paths
+    private float cellWidth;
+    private float cellHeight;
+    private float halfPathWidth;
+    // Tiles of every path type in every color of the palette, rasterized once for the size of the cells
+    // Tile of a cell: color * number of path types + path type
+    private Bitmap atlas;
+    private int tileWidth;
+    private int tileHeight;
+    // Board with every cell drawn, only the cells changed by the model or by a tap are drawn again
+    private Bitmap board;
+    private Canvas boardCanvas;
+    private byte[] drawnTiles;
+    // Rectangles to copy the tiles (reused on each update)
+    private Rect tileRect;
+    private Rect cellRect;
+    private Rect dirtyRect;
+    // Shapes to identify the extremes of each pair
+    private RectF[] leftExtremesShapes;
+    private RectF[] rightExtremesShapes;
+    // Path followed after a tap (reused)
+    private int[] path;
+    // Colors (cells colors are indices in the palette)
+    private Paint[] palette;
+    private byte[] cellsColors;
+    private Paint[] extremesPaints;
     private int backgroundColor;
-    // Timer handler
-    private Handler handler;
-    // Update function (to update the path cells)
-    private Runnable updateCells;
     // View
     private LevelConnectionView rootView;
 
@@ -52,36 +70,17 @@ public class LevelConnection extends Level {
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         super.onCreateView(inflater, container, savedInstanceState);
 
-        // Set colors
-        int pathColor = getRandomColor();
-        extremesPaint = new Paint();
-        extremesPaint.setColor(failColor);
+        // Set colors (the rest depend on the number of pairs)
+        palette = new Paint[3];
+        palette[PATH_COLOR] = new Paint();
+        palette[SUCCESS_COLOR] = new Paint();
+        palette[SUCCESS_COLOR].setColor(successColor);
+        palette[FAIL_COLOR] = new Paint();
+        palette[FAIL_COLOR].setColor(failColor);
         backgroundColor = ContextCompat.getColor(getActivity(), R.color.neutral_dark);
 
-        // Number of cells in each axis
-        cellsX = getResources().getInteger(R.integer.level_connection_cells_x);
-        cellsY = getResources().getInteger(R.integer.level_connection_cells_y);
-
-        // Y coordinate of the extremes
-        leftExtremeY = randomInInterval(0, cellsY - 1);
-        rightExtremeY = randomInInterval(0, cellsY - 1);
-
-        // Create lists and matrices
-        pathCells = new ArrayList<>();
-        randomCells = new ArrayList<>();
-        cells = new PathCell[cellsX][cellsY];
-        cellsPaints = new Paint[cellsX][cellsY];
-
-        // Initialize cell paints
-        for (int i = 0; i < cellsX; i++) {
-            for (int j = 0; j < cellsY; j++) {
-                cellsPaints[i][j] = new Paint();
-                cellsPaints[i][j].setColor(pathColor);
-            }
-        }
-
-        // Set the handler
-        handler = new Handler();
+        // Game logic
+        model = new ConnectionModel(getParameters(), getModelRandom());
 
         // Create view
         rootView = new LevelConnectionView(getActivity());
@@ -90,454 +89,210 @@ public class LevelConnection extends Level {
     }
 
     @Override
-    public boolean onPlayerTap() {
-        // Check initialization
-        if ((rootView == null) || (cells == null) || (cells[0] == null) || (cells[0][0] == null)) {
-            return false;
+    public void onDestroyView() {
+        super.onDestroyView();
+
+        // Release the pixels of the atlas and the board, they are not drawn anymore
+        if (board != null) {
+            atlas.recycle();
+            atlas = null;
+            board.recycle();
+            board = null;
+            boardCanvas = null;
         }
+    }
 
-        // Cancel timers
-        handler.removeCallbacksAndMessages(null);
-
-        // Find path
-        List<Pair<Integer, Integer>> path = followPath(true);
-        boolean result = (path.size() != 0)
-                && (path.get(path.size() - 1).first == (cellsX - 1))
-                && (path.get(path.size() - 1).second == rightExtremeY);
-
-        // Start from the right extreme to identify what to paint with the color for fail
-        if (!result) {
-            path.addAll(followPath(false));
+    @Override
+    public boolean onPlayerTap(long eventTime) {
+        // Check the board is drawn (after initialization, and until the view is destroyed)
+        if ((rootView == null) || (board == null)) {
+            return false;
         }
 
-        // Color the path depending whether it connects both extremes or not
-        int pathColor = result ? successColor : failColor;
-        for (Pair<Integer, Integer> p : path) {
-            cellsPaints[p.first][p.second].setColor(pathColor);
+        // Cancel timers
+        cancelScheduled();
+
+        // Color the paths from the left extremes depending whether they connect both extremes or not
+        boolean result = model.onPlayerTap(eventTime);
+        for (int pair = 0; pair < model.getNumPairs(); pair++) {
+            // Only the connected pairs on success
+            if (result && model.isConnected(pair)) {
+                colorPath(model.followPath(true, pair, path), SUCCESS_COLOR);
+                extremesPaints[pair].setColor(successColor);
+            }
+            // Start from the right extremes to identify what to paint with the color for fail
+            else if (!result) {
+                colorPath(model.followPath(true, pair, path), FAIL_COLOR);
+                colorPath(model.followPath(false, pair, path), FAIL_COLOR);
+                extremesPaints[pair].setColor(failColor);
+            }
         }
 
-        // Change extremes color
-        extremesPaint.setColor(pathColor);
-
         // Redraw
+        updateBoard();
         rootView.invalidate();
 
-        // Success extremes are connected
+        // Success if the extremes of any pair are connected
         return result;
     }
 
-    private List<Pair<Integer, Integer>> followPath(boolean leftToRight) {
-        // Path from extreme to extreme
-        List<Pair<Integer, Integer>> path = new ArrayList<>();
-
-        // Starting point
-        int x = leftToRight ? 0 : (cellsX - 1);
-        int y = leftToRight ? leftExtremeY : rightExtremeY;
-
-        // Current direction
-        Direction direction = leftToRight ? Direction.Right : Direction.Left;
-
-        // Follow the path as long as possible
-        boolean endOfPath = false;
-        while (!endOfPath) {
-            int xPrev = x;
-            int yPrev = y;
-            PathType pathType = cells[x][y].getPathType();
-            // To the right cell
-            if (direction == Direction.Right) {
-                if (pathType == PathType.Horizontal) {
-                    x++;
-                } else if (pathType == PathType.TopLeft) {
-                    direction = Direction.Top;
-                    y--;
-                } else if (pathType == PathType.BottomLeft) {
-                    direction = Direction.Bottom;
-                    y++;
-                } else {
-                    endOfPath = true;
-                }
-            }
-            // To the left cell
-            else if (direction == Direction.Left) {
-                if (pathType == PathType.Horizontal) {
-                    x--;
-                } else if (pathType == PathType.TopRight) {
-                    direction = Direction.Top;
-                    y--;
-                } else if (pathType == PathType.BottomRight) {
-                    direction = Direction.Bottom;
-                    y++;
-                } else {
-                    endOfPath = true;
-                }
-            }
-            // To the top cell
-            else if (direction == Direction.Top) {
-                if (pathType == PathType.Vertical) {
-                    y--;
-                } else if (pathType == PathType.BottomLeft) {
-                    direction = Direction.Left;
-                    x--;
-                } else if (pathType == PathType.BottomRight) {
-                    direction = Direction.Right;
-                    x++;
-                } else {
-                    endOfPath = true;
-                }
-            }
-            // To the bottom cell
-            else {
-                if (pathType == PathType.Vertical) {
-                    y++;
-                } else if (pathType == PathType.TopLeft) {
-                    direction = Direction.Left;
-                    x--;
-                } else if (pathType == PathType.TopRight) {
-                    direction = Direction.Right;
-                    x++;
-                } else {
-                    endOfPath = true;
-                }
-            }
-
-            // Add new pair if it is valid
-            if (!endOfPath) {
-                path.add(new Pair<>(xPrev, yPrev));
-            }
-
-            // Check boundaries
-            if ((x < 0) || (x >= cellsX) || (y < 0) || (y >= cellsY)) {
-                endOfPath = true;
-            }
+    private void colorPath(int length, byte color) {
+        for (int i = 0; i < length; i++) {
+            cellsColors[path[i]] = color;
+            drawCell(path[i]);
         }
-
-        return path;
     }
 
     private void initializeCells() {
         // Screen and cell sizes
         int width = rootView.getMeasuredWidth();
         int height = rootView.getMeasuredHeight();
-        float cellWidth = width / (float) cellsX;
-        float cellHeight = height / (float) cellsY;
-        float pathWidth = cellWidth * getResources().getFraction(R.fraction.level_connection_path_width, 1, 1);
 
-        // Set extremes
-        float extremesWidth = pathWidth * 2.0f;
-        leftExtremeShape = new RectF(-extremesWidth / 2.0f, leftExtremeY * cellHeight + ((cellHeight - extremesWidth) / 2.0f),
-                extremesWidth / 2.0f, leftExtremeY * cellHeight + ((cellHeight + extremesWidth) / 2.0f));
-        rightExtremeShape = new RectF(width - (extremesWidth / 2.0f), rightExtremeY * cellHeight + ((cellHeight - extremesWidth) / 2.0f),
-                width + (extremesWidth / 2.0f), rightExtremeY * cellHeight + ((cellHeight + extremesWidth) / 2.0f));
-
-        // Meeting point (in the X axis) for the left to right and right to left paths
-        int xConnection = randomInInterval(0, cellsX - 1);
-
-        // Save the path cells
-        pathCells = new ArrayList<>();
-
-        // Create path
-        // Left to right
-        int x = -1;
-        int y = leftExtremeY;
-        Direction direction = Direction.Right;
-        while (x < xConnection) {
-            PathType pathType;
-            double p = Math.random();
-
-            // To the right
-            if (direction == Direction.Right) {
-                // Switch to the top
-                if ((p < 0.33) && (y > 1)) {
-                    pathType = PathType.TopLeft;
-                    direction = Direction.Top;
-                }
-                // Switch to the bottom
-                else if ((p < 0.66) && (y < (cellsY - 2))) {
-                    pathType = PathType.BottomLeft;
-                    direction = Direction.Bottom;
-                }
-                // Continue to the right
-                else {
-                    pathType = PathType.Horizontal;
-                }
+        // Start the game logic (the board is drawn once it is created)
+        runModel(model, width, height, this::updateBoard);
 
-                // Move to the right
-                x++;
-            }
-            // To the top
-            else if (direction == Direction.Top) {
-                // Continue to the top
-                if ((p < 0.33) && (y > 1)) {
-                    pathType = PathType.Vertical;
-                }
-                // Switch to the right
-                else {
-                    pathType = PathType.BottomRight;
-                    direction = Direction.Right;
-                }
-
-                // Move to the top
-                y--;
-            }
-            // To the bottom
-            else {
-                // Continue to the bottom
-                if ((p < 0.33) && (y < (cellsY - 2))) {
-                    pathType = PathType.Vertical;
-                }
-                // Switch to the right
-                else {
-                    pathType = PathType.TopRight;
-                    direction = Direction.Right;
-                }
-
-                // Move to the bottom
-                y++;
+        // Number of cells in each axis
+        cellsX = model.getCellsX();
+        cellsY = model.getCellsY();
+
+        // Every cell has the color of the path
+        cellsColors = new byte[cellsX * cellsY];
+        path = new int[cellsX * cellsY];
+
+        // Colors of the path and the extremes, with several pairs each one has its own color
+        int numPairs = model.getNumPairs();
+        extremesPaints = new Paint[numPairs];
+        if (numPairs == 1) {
+            palette[PATH_COLOR].setColor(getRandomColor());
+            extremesPaints[0] = new Paint();
+            extremesPaints[0].setColor(failColor);
+        } else {
+            palette[PATH_COLOR].setColor(ContextCompat.getColor(getActivity(), R.color.neutral_light));
+            Integer[] colors = getRandomDistinctiveColors(numPairs);
+            for (int pair = 0; pair < numPairs; pair++) {
+                extremesPaints[pair] = new Paint();
+                extremesPaints[pair].setColor(colors[pair]);
             }
-
-            // Create path cell
-            cells[x][y] = new PathCell(x * cellWidth, y * cellHeight, cellWidth, cellHeight, pathWidth, pathType);
-            pathCells.add(cells[x][y]);
         }
 
-        // Save the endpoint in the Y axis for the left to right path
-        int endFirstPath = y;
-
-        // Right to left
-        x = cellsX;
-        y = rightExtremeY;
-        direction = Direction.Left;
-        while (x > xConnection) {
-            PathType pathType;
-            double p = Math.random();
-
-            // To the left
-            if (direction == Direction.Left) {
-                // Switch to the top
-                if ((p < 0.33) && (y > 1)) {
-                    pathType = PathType.TopRight;
-                    direction = Direction.Top;
-                }
-                // Switch to the bottom
-                else if ((p < 0.66) && (y < (cellsY - 2))) {
-                    pathType = PathType.BottomRight;
-                    direction = Direction.Bottom;
-                }
-                // Continue to the right
-                else {
-                    pathType = PathType.Horizontal;
-                }
-
-                // Move to the left
-                x--;
-            }
-            // To the top
-            else if (direction == Direction.Top) {
-                // Continue to the top
-                if ((p < 0.33) && (y > 1)) {
-                    pathType = PathType.Vertical;
-                }
-                // Switch to the left
-                else {
-                    pathType = PathType.BottomLeft;
-                    direction = Direction.Left;
-                }
-
-                // Move to the top
-                y--;
-            }
-            // To the bottom
-            else {
-                // Continue to the bottom
-                if ((p < 0.33) && (y < (cellsY - 2))) {
-                    pathType = PathType.Vertical;
-                }
-                // Switch to the left
-                else {
-                    pathType = PathType.TopLeft;
-                    direction = Direction.Left;
-                }
-
-                // Move to the bottom
-                y++;
+        // Size of the cells
+        cellWidth = width / (float) cellsX;
+        cellHeight = height / (float) cellsY;
+        float pathWidth = cellWidth * getResources().getFraction(R.fraction.level_connection_path_width, 1, 1);
+        halfPathWidth = pathWidth / 2.0f;
+
+        // Rasterize the tiles, in rows by color
+        tileWidth = (int) Math.ceil(cellWidth);
+        tileHeight = (int) Math.ceil(cellHeight);
+        atlas = Bitmap.createBitmap(tileWidth * PATH_TYPES.length, tileHeight * palette.length, Bitmap.Config.ARGB_8888);
+        Canvas atlasCanvas = new Canvas(atlas);
+        atlasCanvas.drawColor(backgroundColor);
+        for (int color = 0; color < palette.length; color++) {
+            for (PathType pathType : PATH_TYPES) {
+                drawTile(atlasCanvas, pathType.ordinal() * tileWidth, color * tileHeight, pathType, palette[color]);
             }
-
-            // Create the path cell
-            cells[x][y] = new PathCell(x * cellWidth, y * cellHeight, cellWidth, cellHeight, pathWidth, pathType);
-            pathCells.add(cells[x][y]);
         }
 
-        // Connection point
-        // Aligned
-        if (endFirstPath == y) {
-            cells[xConnection][y] = new PathCell(x * cellWidth, y * cellHeight, cellWidth, cellHeight, pathWidth, PathType.Horizontal);
-            pathCells.add(cells[xConnection][y]);
-        }
-        // Not aligned
-        else {
-            // Left is up
-            if (endFirstPath < y) {
-                cells[xConnection][endFirstPath] = new PathCell(x * cellWidth, endFirstPath * cellHeight, cellWidth, cellHeight, pathWidth, PathType.BottomLeft);
-                pathCells.add(cells[xConnection][endFirstPath]);
-                cells[xConnection][y] = new PathCell(x * cellWidth, y * cellHeight, cellWidth, cellHeight, pathWidth, PathType.TopRight);
-                pathCells.add(cells[xConnection][y]);
-                y--;
-            }
-            // Right is up
-            else {
-                cells[xConnection][endFirstPath] = new PathCell(x * cellWidth, endFirstPath * cellHeight, cellWidth, cellHeight, pathWidth, PathType.TopLeft);
-                pathCells.add(cells[xConnection][endFirstPath]);
-                cells[xConnection][y] = new PathCell(x * cellWidth, y * cellHeight, cellWidth, cellHeight, pathWidth, PathType.BottomRight);
-                pathCells.add(cells[xConnection][y]);
-                y++;
-            }
-
-            // Vertical path between both paths
-            int movement = (y < endFirstPath) ? 1 : -1;
-            while (y != endFirstPath) {
-                cells[xConnection][y] = new PathCell(x * cellWidth, y * cellHeight, cellWidth, cellHeight, pathWidth, PathType.Vertical);
-                pathCells.add(cells[xConnection][y]);
-                y += movement;
-            }
+        // Empty board
+        board = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        boardCanvas = new Canvas(board);
+        boardCanvas.drawColor(backgroundColor);
+        drawnTiles = new byte[cellsX * cellsY];
+        Arrays.fill(drawnTiles, NO_TILE);
+        tileRect = new Rect();
+        cellRect = new Rect();
+        dirtyRect = new Rect();
+
+        // Draw the initial cells
+        for (int cell = 0; cell < (cellsX * cellsY); cell++) {
+            drawCell(cell);
         }
+        model.clearChangedCells();
 
-        // Create the rest of the cells
-        for (int i = 0; i < cellsX; i++) {
-            for (int j = 0; j < cellsY; j++) {
-                // Check that it is not used in the path
-                if (cells[i][j] == null) {
-                    // Create random path cell
-                    cells[i][j] = new PathCell(i * cellWidth, j * cellHeight, cellWidth, cellHeight, pathWidth, null);
-                    randomCells.add(cells[i][j]);
-                }
-            }
+        // Set extremes
+        float extremesWidth = pathWidth * 2.0f;
+        leftExtremesShapes = new RectF[numPairs];
+        rightExtremesShapes = new RectF[numPairs];
+        for (int pair = 0; pair < numPairs; pair++) {
+            int leftExtremeY = model.getLeftExtremeY(pair);
+            int rightExtremeY = model.getRightExtremeY(pair);
+            leftExtremesShapes[pair] = new RectF(-extremesWidth / 2.0f, leftExtremeY * cellHeight + ((cellHeight - extremesWidth) / 2.0f),
+                    extremesWidth / 2.0f, leftExtremeY * cellHeight + ((cellHeight + extremesWidth) / 2.0f));
+            rightExtremesShapes[pair] = new RectF(width - (extremesWidth / 2.0f), rightExtremeY * cellHeight + ((cellHeight - extremesWidth) / 2.0f),
+                    width + (extremesWidth / 2.0f), rightExtremeY * cellHeight + ((cellHeight + extremesWidth) / 2.0f));
         }
 
-        // Set the update function
-        final int delay = randomInt(R.integer.level_connection_min_delay, R.integer.level_connection_max_delay);
-        final float pRandomCell = randomFloat(R.fraction.level_connection_min_update_random, R.fraction.level_connection_max_update_random);
-        updateCells = () -> {
-            // Cell to be updated
-            PathCell cell;
-
-            // Select a random cell
-            if ((Math.random() < pRandomCell) || (pathCells.size() == 0)) {
-                cell = randomCells.get(randomInInterval(0, randomCells.size() - 1));
-            }
-            // Select and remove one of the remaining path cells
-            else {
-                cell = pathCells.remove(randomInInterval(0, pathCells.size() - 1));
-            }
-
-            // Update cell type
-            cell.updatePathType();
-
-            // Redraw
-            rootView.invalidate();
-
-            // Update again after the delay
-            handler.postDelayed(updateCells, delay);
-        };
-
-        // Set timer to call the update function
-        handler.postDelayed(updateCells, delay);
-
-        // Redraw
+        // Draw the whole board with the initial cells and the extremes, without waiting for the first update
+        dirtyRect.setEmpty();
         rootView.invalidate();
     }
 
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
+    private void updateBoard() {
+        // Not created yet (the model is started before the size of the grid is known)
+        if (board == null) {
+            return;
+        }
 
-        // Cancel timers
-        handler.removeCallbacksAndMessages(null);
-    }
+        // Draw the cells changed by the model since the last update
+        for (int i = 0; i < model.getNumChangedCells(); i++) {
+            drawCell(model.getChangedCell(i));
+        }
+        model.clearChangedCells();
 
-    // Possible directions
-    private enum Direction {
-        Left, Right, Top, Bottom
+        // Redraw only the changed cells (including the ones drawn after a tap)
+        if (!dirtyRect.isEmpty()) {
+            rootView.invalidate(dirtyRect);
+            dirtyRect.setEmpty();
+        }
     }
 
-    // Types of cell paths
-    private enum PathType {
-        Horizontal, Vertical, BottomLeft, BottomRight, TopLeft, TopRight
+    private void drawCell(int cell) {
+        // Nothing to draw if the tile of the cell did not change
+        int i = model.getCellX(cell);
+        int j = model.getCellY(cell);
+        byte tile = (byte) (cellsColors[cell] * PATH_TYPES.length + model.getPathType(i, j).ordinal());
+        if (drawnTiles[cell] == tile) {
+            return;
+        }
+        drawnTiles[cell] = tile;
+
+        // Copy the tile from the atlas
+        int tileLeft = (tile % PATH_TYPES.length) * tileWidth;
+        int tileTop = (tile / PATH_TYPES.length) * tileHeight;
+        tileRect.set(tileLeft, tileTop, tileLeft + tileWidth, tileTop + tileHeight);
+        cellRect.set(Math.round(i * cellWidth), Math.round(j * cellHeight),
+                Math.round((i + 1) * cellWidth), Math.round((j + 1) * cellHeight));
+        boardCanvas.drawBitmap(atlas, tileRect, cellRect, null);
+        dirtyRect.union(cellRect.left, cellRect.top, cellRect.right, cellRect.bottom);
     }
 
-    // Class for the path cells
-    private class PathCell {
-        // Real and current path type (real is null if it is a random cell)
-        private final PathType realPathType;
-        private PathType pathType;
-        // Underlying shapes to paint the path cell
-        private RectF left;
-        private RectF top;
-        private RectF right;
-        private RectF bottom;
-
-        public PathCell(float left, float top, float width, float height, float pathWidth, PathType realPathType) {
-            // Calculate inner extremes
-            float centerX = left + (width / 2.0f);
-            float centerY = top + (height / 2.0f);
-            float halfPathWidth = pathWidth / 2.0f;
-            float innerLeft = centerX - halfPathWidth;
-            float innerTop = centerY - halfPathWidth;
-            float innerRight = centerX + halfPathWidth;
-            float innerBottom = centerY + halfPathWidth;
-
-            // Initialize underlying shapes
-            this.left = new RectF(left, innerTop, innerRight, innerBottom);
-            this.top = new RectF(innerLeft, top, innerRight, innerBottom);
-            this.right = new RectF(innerLeft, innerTop, left + width, innerBottom);
-            this.bottom = new RectF(innerLeft, innerTop, innerRight, top + height);
-
-            // Update first so every cell is initially random
-            updatePathType();
-            this.realPathType = realPathType;
+    private void drawTile(Canvas canvas, float left, float top, PathType pathType, Paint paint) {
+        // Bounds of the tile (scaled to the bounds of each cell when copied to the board)
+        float right = left + tileWidth;
+        float bottom = top + tileHeight;
+
+        // Inner extremes
+        float centerX = left + (tileWidth / 2.0f);
+        float centerY = top + (tileHeight / 2.0f);
+        float innerLeft = centerX - halfPathWidth;
+        float innerTop = centerY - halfPathWidth;
+        float innerRight = centerX + halfPathWidth;
+        float innerBottom = centerY + halfPathWidth;
+
+        // Left and right halves of the cell
+        if ((pathType == PathType.Horizontal) || (pathType == PathType.BottomLeft) || (pathType == PathType.TopLeft)) {
+            canvas.drawRect(left, innerTop, innerRight, innerBottom, paint);
         }
-
-        public final void updatePathType() {
-            // Switch to the real PathType (if exists) or generate a random one
-            pathType = (realPathType == null) ?
-                    PathType.values()[randomInInterval(0, PathType.values().length - 1)]
-                    : realPathType;
+        if ((pathType == PathType.Horizontal) || (pathType == PathType.BottomRight) || (pathType == PathType.TopRight)) {
+            canvas.drawRect(innerLeft, innerTop, right, innerBottom, paint);
         }
 
-        public PathType getPathType() {
-            return pathType;
+        // Top and bottom halves of the cell
+        if ((pathType == PathType.Vertical) || (pathType == PathType.TopLeft) || (pathType == PathType.TopRight)) {
+            canvas.drawRect(innerLeft, top, innerRight, innerBottom, paint);
         }
-
-        public void draw(Canvas canvas, Paint paint) {
-            // Horizontal path
-            if (pathType == PathType.Horizontal) {
-                canvas.drawRect(left, paint);
-                canvas.drawRect(right, paint);
-            }
-            // Vertical path
-            else if (pathType == PathType.Vertical) {
-                canvas.drawRect(top, paint);
-                canvas.drawRect(bottom, paint);
-            }
-            // Bottom left corner
-            else if (pathType == PathType.BottomLeft) {
-                canvas.drawRect(left, paint);
-                canvas.drawRect(bottom, paint);
-            }
-            // Bottom right corner
-            else if (pathType == PathType.BottomRight) {
-                canvas.drawRect(right, paint);
-                canvas.drawRect(bottom, paint);
-            }
-            // Top left corner
-            else if (pathType == PathType.TopLeft) {
-                canvas.drawRect(top, paint);
-                canvas.drawRect(left, paint);
-            }
-            // Top right corner
-            else {
-                canvas.drawRect(top, paint);
-                canvas.drawRect(right, paint);
-            }
+        if ((pathType == PathType.Vertical) || (pathType == PathType.BottomLeft) || (pathType == PathType.BottomRight)) {
+            canvas.drawRect(innerLeft, innerTop, innerRight, bottom, paint);
         }
     }
 
@@ -549,24 +304,19 @@ public class LevelConnection extends Level {
         @Override
         protected void onDraw(Canvas canvas) {
             // Uninitialized
-            if ((cells == null) || (cells[0] == null) || (cells[0][0] == null)) {
+            if (!model.isStarted()) {
                 initializeCells();
             }
             // Playing
             else {
-                // Set background color
-                canvas.drawColor(backgroundColor);
-
-                // Draw cells
-                for (int i = 0; i < cellsX; i++) {
-                    for (int j = 0; j < cellsY; j++) {
-                        cells[i][j].draw(canvas, cellsPaints[i][j]);
-                    }
-                }
+                // Draw the board
+                canvas.drawBitmap(board, 0, 0, null);
 
                 // Draw extremes
-                canvas.drawOval(leftExtremeShape, extremesPaint);
-                canvas.drawOval(rightExtremeShape, extremesPaint);
+                for (int pair = 0; pair < leftExtremesShapes.length; pair++) {
+                    canvas.drawOval(leftExtremesShapes[pair], extremesPaints[pair]);
+                    canvas.drawOval(rightExtremesShapes[pair], extremesPaints[pair]);
+                }
             }
         }
     }
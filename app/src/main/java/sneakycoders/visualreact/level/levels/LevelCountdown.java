@@ -1,8 +1,7 @@
 package sneakycoders.visualreact.level.levels;
 
 import android.os.Bundle;
-import android.os.CountDownTimer;
-import android.os.SystemClock;
+import android.util.Log;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -14,20 +13,18 @@ import java.text.NumberFormat;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.model.CountdownModel;
 
 // Dynamically instantiated
 @SuppressWarnings("unused")
 public class LevelCountdown extends Level {
-    // Counter
-    private int counter;
-    // Countdown timer
-    private CountDownTimer countDownTimer;
-    // Flag to see if the result is success or not
-    private boolean result;
-    // Total time in milliseconds of the countdown
-    private long totalTime;
-    // Elapsed time since the countdown started
-    private long elapsedTime;
+    // Tag for the log messages
+    private static final String LOG_TAG = "LevelCountdown";
+    // Game logic
+    private CountdownModel model;
+    // Counter and time offset formats
+    private NumberFormat counterFormat;
+    private NumberFormat offsetFormat;
     // Player countdowns
     private TextView player1Countdown;
     private TextView player2Countdown;
@@ -38,8 +35,9 @@ public class LevelCountdown extends Level {
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         super.onCreateView(inflater, container, savedInstanceState);
 
-        // Set initial state
-        result = false;
+        // Set formats
+        counterFormat = NumberFormat.getIntegerInstance();
+        offsetFormat = new DecimalFormat("+0.00;-0.00");
 
         // Create view
         rootView = inflater.inflate(R.layout.level_countdown, container, false);
@@ -51,61 +49,46 @@ public class LevelCountdown extends Level {
         player1Countdown.setTextColor(color);
         player2Countdown.setTextColor(color);
 
-        // Get parameters
-        final int start = randomInt(R.integer.level_countdown_min_start, R.integer.level_countdown_max_start);
-        final int step = randomInt(R.integer.level_countdown_min_delay, R.integer.level_countdown_max_delay);
-        int minHide = getResources().getInteger(R.integer.level_countdown_min_hide);
-        int maxHideOffset = getResources().getInteger(R.integer.level_countdown_max_hide_offset);
-        final int hide = randomInInterval(minHide, start - maxHideOffset);
-
-        // Set starting values
-        counter = start;
-        player1Countdown.setText(NumberFormat.getIntegerInstance().format(counter));
-        player2Countdown.setText(NumberFormat.getIntegerInstance().format(counter));
-
-        // Set countdown timer
-        totalTime = start * step;
-        countDownTimer = new CountDownTimer(totalTime, step) {
-            @Override
-            public void onTick(long msUntilFinished) {
-                if (counter >= hide) {
-                    // Visible countdown
-                    player1Countdown.setText(NumberFormat.getIntegerInstance().format(counter));
-                    player2Countdown.setText(NumberFormat.getIntegerInstance().format(counter));
-                } else if (counter == (hide - 1)) {
-                    // Hide countdown
-                    player1Countdown.setVisibility(View.INVISIBLE);
-                    player2Countdown.setVisibility(View.INVISIBLE);
-                }
-                counter--;
+        // Start countdown, with ticks due at absolute deadlines so that a late tick does not delay the next ones
+        model = new CountdownModel(getParameters(), getModelRandom());
+        runModel(model, 0, 0, () -> {
+            // Measure how late the tick runs (only when debugging, to keep the tick free of allocations and I/O)
+            if (Log.isLoggable(LOG_TAG, Log.DEBUG)) {
+                Log.d(LOG_TAG, "Tick " + model.getShownCounter() + " late by " + ((now() - model.getLastTickTime()) / 1e6) + " ms");
             }
 
-            @Override
-            public void onFinish() {
-                result = true;
+            if (model.isCounterVisible()) {
+                // Visible countdown
+                player1Countdown.setText(counterFormat.format(model.getShownCounter()));
+                player2Countdown.setText(counterFormat.format(model.getShownCounter()));
+            } else {
+                // Hide countdown
+                player1Countdown.setVisibility(View.INVISIBLE);
+                player2Countdown.setVisibility(View.INVISIBLE);
             }
-        }.start();
-        elapsedTime = SystemClock.elapsedRealtime();
+        });
 
         return rootView;
     }
 
     @Override
-    public boolean onPlayerTap() {
+    public boolean onPlayerTap(long eventTime) {
         // Check initialization
         if (rootView == null) {
             return false;
         }
 
-        // Calculate time offset
-        float timeOffset = (totalTime - (SystemClock.elapsedRealtime() - elapsedTime)) / 1000.0f;
-
         // Cancel countdown
-        countDownTimer.cancel();
+        cancelScheduled();
+
+        // Calculate time offset (in seconds) between the touch and the end of the countdown
+        double timeOffset = (model.getEndTime() - eventTime) / 1e9;
+
+        // Success only if the countdown had finished when the player touched the screen
+        boolean result = model.onPlayerTap(eventTime);
 
         // Assign time offset
-        NumberFormat f = new DecimalFormat("+0.00;-0.00");
-        String timeOffsetStr = f.format(timeOffset);
+        String timeOffsetStr = offsetFormat.format(timeOffset);
         player1Countdown.setText(timeOffsetStr);
         player2Countdown.setText(timeOffsetStr);
 
@@ -123,12 +106,4 @@ public class LevelCountdown extends Level {
         // Return current result
         return result;
     }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-
-        // Cancel countdown
-        countDownTimer.cancel();
-    }
 }
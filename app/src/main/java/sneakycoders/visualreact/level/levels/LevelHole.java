@@ -5,7 +5,6 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.os.Bundle;
-import android.os.Handler;
 import android.support.v4.content.ContextCompat;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -13,24 +12,17 @@ import android.view.ViewGroup;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.model.HoleModel;
 
 // Dynamically instantiated
 @SuppressWarnings("unused")
 public class LevelHole extends Level {
+    // Game logic
+    private HoleModel model;
     // Result
     private boolean result;
-    // Shapes
-    private RectF leftCircle;
-    private RectF rightCircle;
-    private RectF hole;
-    private RectF middleBlock;
-    // Screen size
-    private float halfWidth;
-    private float halfHeight;
-    // Timer handler
-    private Handler handler;
-    // Update function (to resize the circles)
-    private Runnable updateShapes;
+    // Rectangle to draw the shapes (reused on each frame)
+    private RectF drawRect;
     // Colors
     private Paint circlePaint;
     private Paint holePaint;
@@ -44,12 +36,9 @@ public class LevelHole extends Level {
         super.onCreateView(inflater, container, savedInstanceState);
 
         // Set initial state
+        model = new HoleModel(getParameters(), getModelRandom());
         result = false;
-        leftCircle = null;
-        rightCircle = null;
-
-        // Set handler
-        handler = new Handler();
+        drawRect = new RectF();
 
         // Set colors
         circlePaint = new Paint();
@@ -67,21 +56,17 @@ public class LevelHole extends Level {
     }
 
     @Override
-    public boolean onPlayerTap() {
+    public boolean onPlayerTap(long eventTime) {
         // Check initialization
-        if ((rootView == null) || (leftCircle == null) || (rightCircle == null)) {
+        if ((rootView == null) || !model.isStarted()) {
             return false;
         }
 
         // Stop animation
-        handler.removeCallbacksAndMessages(null);
-
-        // Regroup shapes in the middle
-        leftCircle.offsetTo(halfWidth - (leftCircle.width() / 2.0f), halfHeight - (leftCircle.height() / 2.0f));
-        rightCircle.offsetTo(halfWidth - (rightCircle.width() / 2.0f), halfHeight - (rightCircle.height() / 2.0f));
+        cancelScheduled();
 
-        // Check if the circle is smaller than the hole
-        result = (hole.width() >= leftCircle.width());
+        // Check if the circle is smaller than the hole at the moment of the tap
+        result = model.onPlayerTap(eventTime);
 
         // Paint the hole as a circle if the circle is bigger than the hole
         if (!result) {
@@ -99,81 +84,9 @@ public class LevelHole extends Level {
         // Screen size
         int width = rootView.getMeasuredWidth();
         int height = rootView.getMeasuredHeight();
-        halfWidth = width / 2.0f;
-        halfHeight = height / 2.0f;
-
-        // Set hole dimensions
-        float holeRadius = height * randomFloat(R.fraction.level_hole_min_hole_radius, R.fraction.level_hole_max_hole_radius);
-        float middleBlockHalfWidth = holeRadius * getResources().getFraction(R.fraction.level_hole_block_width, 1, 1);
-
-        // Create hole and middle block
-        hole = new RectF(halfWidth - holeRadius, halfHeight - holeRadius, halfWidth + holeRadius, halfHeight + holeRadius);
-        middleBlock = new RectF(halfWidth - middleBlockHalfWidth, 0, halfWidth + middleBlockHalfWidth, height);
-
-        // Set circles diameters
-        final float originalCircleDiameter = 2.0f * height * randomFloat(R.fraction.level_hole_min_circle_radius, R.fraction.level_hole_max_circle_radius);
-        final float resizedCircleDiameter = 2.0f * holeRadius * (1.0f - getResources().getFraction(R.fraction.level_hole_margin, 1, 1));
-
-        // Create circles
-        final float centerLeftCircleX = (halfWidth - middleBlockHalfWidth) / 2.0f;
-        final float centerRightCircleX = width - (halfWidth - middleBlockHalfWidth) / 2.0f;
-        leftCircle = new RectF(
-                centerLeftCircleX - (originalCircleDiameter / 2.0f),
-                halfHeight - (originalCircleDiameter / 2.0f),
-                centerLeftCircleX + (originalCircleDiameter / 2.0f),
-                halfHeight + (originalCircleDiameter / 2.0f));
-        rightCircle = new RectF(
-                centerRightCircleX - (originalCircleDiameter / 2.0f),
-                halfHeight - (originalCircleDiameter / 2.0f),
-                centerRightCircleX + (originalCircleDiameter / 2.0f),
-                halfHeight + (originalCircleDiameter / 2.0f));
-
-        // Set the movement
-        final int delay = 1000 / getResources().getInteger(R.integer.level_hole_frames_per_second);
-        final long resizeTime = randomInt(R.integer.level_hole_min_resize_time, R.integer.level_hole_max_resize_time);
-        final long startTime = System.currentTimeMillis();
-        updateShapes = () -> {
-            // Time since we started the animation, modulo two times resizeTime
-            // First we scale down then up
-            long totalResizeTime = 2 * resizeTime;
-            long elapsedTime = (System.currentTimeMillis() - startTime) % totalResizeTime;
-
-            // Calculate offset in percentage (from 0% to 100%)
-            float offset = ((elapsedTime < resizeTime) ? elapsedTime : (totalResizeTime - elapsedTime)) / (float) resizeTime;
-            float circleDiameter = (1.0f - offset) * originalCircleDiameter + offset * resizedCircleDiameter;
-
-            // Resize and center shapes
-            leftCircle.set(
-                    centerLeftCircleX - (circleDiameter / 2.0f),
-                    halfHeight - (circleDiameter / 2.0f),
-                    centerLeftCircleX + (circleDiameter / 2.0f),
-                    halfHeight + (circleDiameter / 2.0f));
-            rightCircle.set(
-                    centerRightCircleX - (circleDiameter / 2.0f),
-                    halfHeight - (circleDiameter / 2.0f),
-                    centerRightCircleX + (circleDiameter / 2.0f),
-                    halfHeight + (circleDiameter / 2.0f));
-
-            // Redraw
-            rootView.invalidate();
-
-            // Update again after the delay
-            handler.postDelayed(updateShapes, delay);
-        };
-
-        // Set timer to call the movement function
-        handler.postDelayed(updateShapes, delay);
-
-        // Redraw
-        rootView.invalidate();
-    }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
 
-        // Cancel animation
-        handler.removeCallbacksAndMessages(null);
+        // Resize the circles on every frame
+        runModel(model, width, height, rootView::invalidate);
     }
 
     private class LevelHoleView extends View {
@@ -184,7 +97,7 @@ public class LevelHole extends Level {
         @Override
         protected void onDraw(Canvas canvas) {
             // Uninitialized
-            if ((leftCircle == null) || (rightCircle == null)) {
+            if (!model.isStarted()) {
                 initializeShapes();
             }
             // Playing
@@ -193,14 +106,14 @@ public class LevelHole extends Level {
                 canvas.drawColor(backgroundColor);
 
                 // Draw shapes
-                canvas.drawOval(rightCircle, circlePaint);
-                canvas.drawOval(leftCircle, circlePaint);
-                canvas.drawRect(middleBlock, middleBlockPaint);
-                canvas.drawOval(hole, holePaint);
+                canvas.drawOval(toRectF(model.getRightCircle(), drawRect), circlePaint);
+                canvas.drawOval(toRectF(model.getLeftCircle(), drawRect), circlePaint);
+                canvas.drawRect(toRectF(model.getMiddleBlock(), drawRect), middleBlockPaint);
+                canvas.drawOval(toRectF(model.getHole(), drawRect), holePaint);
 
                 // Repaint circle in case we are in result phase and the circle is smaller than the hole
                 if (result) {
-                    canvas.drawOval(rightCircle, circlePaint);
+                    canvas.drawOval(toRectF(model.getRightCircle(), drawRect), circlePaint);
                 }
             }
         }
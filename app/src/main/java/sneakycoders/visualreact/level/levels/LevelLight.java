@@ -5,7 +5,6 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.os.Bundle;
-import android.os.Handler;
 import android.support.v4.content.ContextCompat;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -13,20 +12,15 @@ import android.view.ViewGroup;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.model.LightModel;
 
 // Dynamically instantiated
 @SuppressWarnings("unused")
 public class LevelLight extends Level {
-    // Cells in the X axis
-    private int cellsX;
-    // Cells in the Y axis
-    private int cellsY;
-    // Light cells counter
-    private int totalLightCells;
+    // Game logic
+    private LightModel model;
     // Cells
     private RectF[][] cells;
-    // Light Cells
-    private boolean[][] lightCells;
     // Middle line
     private RectF middleLine;
     // Colors
@@ -35,14 +29,6 @@ public class LevelLight extends Level {
     private int backgroundColor;
     // Flag to see the state of the level
     private State state;
-    // Probability of changing from dark to light on each update
-    private float darkToLight;
-    // Probability of changing from light to dark on each update
-    private float lightToDark;
-    // Timer handler
-    private Handler handler;
-    // Update function (to update the cells)
-    private Runnable updateCells;
     // View
     private LevelLightView rootView;
 
@@ -52,7 +38,7 @@ public class LevelLight extends Level {
 
         // Set initial state
         state = State.Uninitialized;
-        totalLightCells = 0;
+        model = new LightModel(getParameters(), getModelRandom());
 
         // Set colors
         cellPaint = new Paint();
@@ -60,63 +46,50 @@ public class LevelLight extends Level {
         verticalPaint = new Paint();
         backgroundColor = ContextCompat.getColor(getActivity(), R.color.neutral_dark);
 
-        // Number of cells in each axis
-        cellsX = getResources().getInteger(R.integer.level_light_cells_x);
-        cellsY = getResources().getInteger(R.integer.level_light_cells_y);
-
-        // Transition probabilities
-        darkToLight = randomFloat(R.fraction.level_light_min_dark_to_light, R.fraction.level_light_max_dark_to_light);
-        lightToDark = randomFloat(R.fraction.level_light_min_light_to_dark, R.fraction.level_light_max_light_to_dark);
-
-        // Create matrices
-        cells = new RectF[cellsX][cellsY];
-        lightCells = new boolean[cellsX][cellsY];
-
-        // Set the handler
-        handler = new Handler();
-
         // Create view
         rootView = new LevelLightView(getActivity());
 
         return rootView;
     }
 
-    private boolean moreCellsLightThanDark() {
-        return (totalLightCells > ((cellsX * cellsY) / 2));
-    }
-
     @Override
-    public boolean onPlayerTap() {
+    public boolean onPlayerTap(long eventTime) {
         // Check initialization
         if ((rootView == null) || (state == State.Uninitialized)) {
             return false;
         }
 
         // Cancel timers
-        handler.removeCallbacksAndMessages(null);
+        cancelScheduled();
 
         // Set state
         state = State.Result;
 
         // Set color of the vertical line
-        int verticalColor = moreCellsLightThanDark() ? successLightColor : failLightColor;
+        int verticalColor = model.moreCellsLightThanDark() ? successLightColor : failLightColor;
         verticalPaint.setColor(verticalColor);
 
         // Redraw
         rootView.invalidate();
 
         // Success if more than half of the cells are light
-        return moreCellsLightThanDark();
+        return model.onPlayerTap(eventTime);
     }
 
     private void initializeCells() {
         // Screen and cell sizes
         int width = rootView.getMeasuredWidth();
         int height = rootView.getMeasuredHeight();
-        float cellWidth = width / (float) cellsX;
-        float cellHeight = height / (float) cellsY;
+
+        // Start the game logic
+        runModel(model, width, height, rootView::invalidate);
 
         // Create rectangles
+        int cellsX = model.getCellsX();
+        int cellsY = model.getCellsY();
+        float cellWidth = width / (float) cellsX;
+        float cellHeight = height / (float) cellsY;
+        cells = new RectF[cellsX][cellsY];
         for (int i = 0; i < cellsX; i++) {
             for (int j = 0; j < cellsY; j++) {
                 // Create rectangle
@@ -129,40 +102,6 @@ public class LevelLight extends Level {
         float lineSemiWidth = 0.5f * width * getResources().getFraction(R.fraction.level_light_middle_line_width, 1, 1);
         middleLine = new RectF(middleCell.right - lineSemiWidth, 0, middleCell.right + lineSemiWidth, height);
 
-        // Set the update function
-        final int delay = randomInt(R.integer.level_light_min_delay, R.integer.level_light_max_delay);
-        updateCells = () -> {
-            int i = randomInInterval(0, cellsX - 1);
-            int j = randomInInterval(0, cellsY - 1);
-            double r = Math.random();
-            // Light cell
-            if (lightCells[i][j]) {
-                if (r <= lightToDark) {
-                    lightCells[i][j] = false;
-                    totalLightCells--;
-
-                    // Redraw
-                    rootView.invalidate();
-                }
-            }
-            // Dark cell
-            else {
-                if (r <= darkToLight) {
-                    lightCells[i][j] = true;
-                    totalLightCells++;
-
-                    // Redraw
-                    rootView.invalidate();
-                }
-            }
-
-            // Update again after the delay
-            handler.postDelayed(updateCells, delay);
-        };
-
-        // Set timer to call the update function
-        handler.postDelayed(updateCells, delay);
-
         // Set the state
         state = State.Playing;
 
@@ -170,14 +109,6 @@ public class LevelLight extends Level {
         rootView.invalidate();
     }
 
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-
-        // Cancel timers
-        handler.removeCallbacksAndMessages(null);
-    }
-
     // States of the level
     private enum State {
         Uninitialized, Playing, Result
@@ -200,9 +131,9 @@ public class LevelLight extends Level {
                 canvas.drawColor(backgroundColor);
 
                 // Draw light cells
-                for (int i = 0; i < cellsX; i++) {
-                    for (int j = 0; j < cellsY; j++) {
-                        if (lightCells[i][j]) {
+                for (int i = 0; i < model.getCellsX(); i++) {
+                    for (int j = 0; j < model.getCellsY(); j++) {
+                        if (model.isLight(i, j)) {
                             canvas.drawRect(cells[i][j], cellPaint);
                         }
                     }
@@ -214,9 +145,9 @@ public class LevelLight extends Level {
                 canvas.drawColor(backgroundColor);
 
                 // Group cells by color
-                int counter = totalLightCells;
-                for (int i = 0; (i < cellsX) && (counter > 0); i++) {
-                    for (int j = 0; (j < cellsY) && (counter > 0); j++) {
+                int counter = model.getTotalLightCells();
+                for (int i = 0; (i < model.getCellsX()) && (counter > 0); i++) {
+                    for (int j = 0; (j < model.getCellsY()) && (counter > 0); j++) {
                         canvas.drawRect(cells[i][j], cellPaint);
                         counter--;
                     }
@@ -5,34 +5,24 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.os.Bundle;
-import android.os.Handler;
 import android.support.v4.content.ContextCompat;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.List;
-import java.util.Set;
-
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.model.LineModel;
 
 @SuppressWarnings("unused")
 public class LevelLine extends Level {
+    // Game logic
+    private LineModel model;
     // Cells in the X axis and Y axis
     private int nCells;
     // Cells
     private RectF[][] circles;
     private RectF[][][] crosses;
-    private Paint[][] cellPaints;
-    // Cells types
-    private ShapeType[][] cellTypes;
-    // Filled cells
-    private List<Integer> filled;
-    // Not filled cells
-    private List<Integer> notFilled;
     // Colors
     private int backgroundColor;
     private Paint successPaint;
@@ -41,10 +31,6 @@ public class LevelLine extends Level {
     // Separator lines
     private RectF[] lines;
     private Paint linePaint;
-    // Handler
-    private Handler handler;
-    // Update function
-    private Runnable updateCells;
     // View
     private LevelLineView rootView;
 
@@ -52,11 +38,8 @@ public class LevelLine extends Level {
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         super.onCreateView(inflater, container, savedInstanceState);
 
-        // Set the handler
-        handler = new Handler();
-
-        // Number of cells in each axis
-        nCells = getResources().getInteger(R.integer.level_line_cells);
+        // Game logic
+        model = new LineModel(getParameters(), getModelRandom());
 
         // Colors
         backgroundColor = ContextCompat.getColor(getActivity(), R.color.neutral_dark);
@@ -75,22 +58,6 @@ public class LevelLine extends Level {
         linePaint = new Paint();
         linePaint.setColor(ContextCompat.getColor(getActivity(), R.color.neutral_light));
 
-        // Initialize cells matrices
-        circles = new RectF[nCells][nCells];
-        crosses = new RectF[nCells][nCells][2];
-        cellTypes = new ShapeType[nCells][nCells];
-        cellPaints = new Paint[nCells][nCells];
-
-        // Initialize lists with fill information
-        filled = new ArrayList<>();
-        notFilled = new ArrayList<>();
-        for (int i = 0; i < (nCells * nCells); i++) {
-            notFilled.add(i);
-        }
-
-        // Initialize separators
-        lines = new RectF[2 * (nCells - 1)];
-
         // Create view
         rootView = new LevelLineView(getActivity());
 
@@ -98,91 +65,17 @@ public class LevelLine extends Level {
     }
 
     @Override
-    public boolean onPlayerTap() {
+    public boolean onPlayerTap(long eventTime) {
         // Check initialization
-        if ((rootView == null) || (circles == null) || (circles[0] == null) || (circles[0][0] == null)) {
+        if ((rootView == null) || !model.isStarted()) {
             return false;
         }
 
         // Stop animation
-        handler.removeCallbacksAndMessages(null);
-
-        // Number of qualified lines
-        int nLines = 0;
-
-        // Number of filled cells
-        int nFilledCells;
-
-        // Check horizontally from the first line to the last line
-        for (int i = 0; i < nCells; i++) {
-            // Create a set to store the types in the row
-            Set<ShapeType> types = EnumSet.noneOf(ShapeType.class);
-            nFilledCells = 0;
-
-            // Get the number of filled cells and types of cells in the row
-            for (int j = 0; ((j < nCells) && (filled.contains(nCells * i + j))); j++) {
-                nFilledCells++;
-                types.add(cellTypes[i][j]);
-            }
-
-            // Check if all types are the same when the row is filled
-            if ((nFilledCells == nCells) && (types.size() == 1)) {
-                nLines++;
-
-                // Set the paint color to success paint
-                for (int j = 0; j < nCells; j++) {
-                    cellPaints[i][j] = successPaint;
-                }
-            }
-        }
-
-        // Check vertically from first column to last column
-        for (int i = 0; i < nCells; i++) {
-            Set<ShapeType> types = EnumSet.noneOf(ShapeType.class);
-            nFilledCells = 0;
-
-            for (int j = 0; (j < nCells) && (filled.contains(nCells * j + i)); j++) {
-                nFilledCells++;
-                types.add(cellTypes[j][i]);
-            }
-            if ((nFilledCells == nCells) && (types.size() == 1)) {
-                nLines++;
-                for (int j = 0; j < nCells; j++) {
-                    cellPaints[j][i] = successPaint;
-                }
-            }
-        }
-
-        // Check diagonal from left to right
-        Set<ShapeType> typesLtoR = EnumSet.noneOf(ShapeType.class);
-        nFilledCells = 0;
-        for (int i = 0; (i < nCells) && (filled.contains(nCells * i + i)); i++) {
-            nFilledCells++;
-            typesLtoR.add(cellTypes[i][i]);
-        }
-        if ((nFilledCells == nCells) && (typesLtoR.size() == 1)) {
-            nLines++;
-            for (int i = 0; i < nCells; i++) {
-                cellPaints[i][i] = successPaint;
-            }
-        }
-
-        // Check diagonal from right to left
-        Set<ShapeType> typesRtoL = EnumSet.noneOf(ShapeType.class);
-        nFilledCells = 0;
-        for (int i = 0; (i < nCells) && (filled.contains(i * nCells + nCells - 1 - i)); i++) {
-            nFilledCells++;
-            typesRtoL.add(cellTypes[i][nCells - 1 - i]);
-        }
-        if ((nFilledCells == nCells) && (typesRtoL.size() == 1)) {
-            nLines++;
-            for (int i = 0; i < nCells; i++) {
-                cellPaints[i][nCells - 1 - i] = successPaint;
-            }
-        }
+        cancelScheduled();
 
-        // Check if there is at least one connected line
-        boolean result = (nLines > 0);
+        // Check if there is at least one connected line, and highlight it
+        boolean result = model.onPlayerTap(eventTime);
 
         // Redraw if needed
         if (result) {
@@ -192,19 +85,24 @@ public class LevelLine extends Level {
         return result;
     }
 
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-
-        // Cancel timers
-        handler.removeCallbacksAndMessages(null);
-    }
-
     private void initializeCells() {
         // Screen size
         int width = rootView.getMeasuredWidth();
         int height = rootView.getMeasuredHeight();
 
+        // Start the game logic
+        runModel(model, width, height, rootView::invalidate);
+
+        // Number of cells in each axis (chosen by the game logic)
+        nCells = model.getCells();
+
+        // Initialize cells matrices
+        circles = new RectF[nCells][nCells];
+        crosses = new RectF[nCells][nCells][2];
+
+        // Initialize separators
+        lines = new RectF[2 * (nCells - 1)];
+
         // Size of the grid
         float squareWidth = Math.min(width, height);
         float resizedSquareWidth = squareWidth * getResources().getFraction(R.fraction.level_line_grid_size, 1, 1);
@@ -274,51 +172,6 @@ public class LevelLine extends Level {
                 crosses[i][j][1] = new RectF(cellLeft + distVertical, cellTop - distHorizontal, cellRight - distVertical, cellBottom + distHorizontal);
             }
         }
-
-        // Update cells
-        final int delay = randomInt(R.integer.level_line_min_delay, R.integer.level_line_max_delay);
-        updateCells = () -> {
-            // All cells are filled
-            if (notFilled.size() == 0) {
-                // Swap filled and notFilled
-                notFilled = filled;
-                filled = new ArrayList<>();
-            }
-            // More cells need to be filled
-            else {
-                // Cell to be filled
-                int cellInd = randomInInterval(0, notFilled.size() - 1);
-                int cellPos = notFilled.get(cellInd);
-                filled.add(cellPos);
-                notFilled.remove(cellInd);
-
-                // Type of the cell
-                boolean isCircle = randomBoolean();
-
-                // Update the grid
-                int row = cellPos / nCells;
-                int col = cellPos % nCells;
-                cellPaints[row][col] = isCircle ? circlePaint : crossPaint;
-                cellTypes[row][col] = isCircle ? ShapeType.Circle : ShapeType.Cross;
-            }
-
-            // Redraw
-            rootView.invalidate();
-
-            // Update again after the delay
-            handler.postDelayed(updateCells, delay);
-        };
-
-        // Set timer to call the update function
-        handler.postDelayed(updateCells, delay);
-
-        // Redraw
-        rootView.invalidate();
-    }
-
-    // Types of shape
-    private enum ShapeType {
-        Circle, Cross
     }
 
     private class LevelLineView extends View {
@@ -329,7 +182,7 @@ public class LevelLine extends Level {
         @Override
         protected void onDraw(Canvas canvas) {
             // Uninitialized
-            if ((circles == null) || (circles[0] == null) || (circles[0][0] == null)) {
+            if (!model.isStarted()) {
                 initializeCells();
             }
             // Playing
@@ -342,14 +195,18 @@ public class LevelLine extends Level {
                     canvas.drawRect(rect, linePaint);
                 }
 
-                // Draw shapes
-                for (int index : filled) {
+                // Draw shapes (only the filled cells)
+                for (int index = model.getNextFilledCell(0); index != -1; index = model.getNextFilledCell(index + 1)) {
                     int row = index / nCells;
                     int col = index % nCells;
 
+                    // Shapes in a line are highlighted after a tap
+                    boolean isCircle = (model.getCellType(row, col) == LineModel.ShapeType.Circle);
+                    Paint paint = model.isHighlighted(row, col) ? successPaint : (isCircle ? circlePaint : crossPaint);
+
                     // Draw circle
-                    if (cellTypes[row][col] == ShapeType.Circle) {
-                        canvas.drawOval(circles[row][col], cellPaints[row][col]);
+                    if (isCircle) {
+                        canvas.drawOval(circles[row][col], paint);
                     }
                     // Draw cross
                     else {
@@ -362,8 +219,8 @@ public class LevelLine extends Level {
                         canvas.rotate(45, rectHorizontal.centerX(), rectHorizontal.centerY());
 
                         // Draw cross
-                        canvas.drawRect(rectHorizontal, cellPaints[row][col]);
-                        canvas.drawRect(rectVertical, cellPaints[row][col]);
+                        canvas.drawRect(rectHorizontal, paint);
+                        canvas.drawRect(rectVertical, paint);
 
                         // Restore canvas
                         canvas.restore();
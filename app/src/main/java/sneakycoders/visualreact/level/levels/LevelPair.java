@@ -1,43 +1,49 @@
 package sneakycoders.visualreact.level.levels;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.os.Bundle;
-import android.os.Handler;
 import android.support.v4.content.ContextCompat;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.EnumMap;
-import java.util.List;
-import java.util.Map;
-
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.model.PairModel;
+import sneakycoders.visualreact.level.model.PairModel.Shape;
+import sneakycoders.visualreact.level.model.PairModel.ShapeType;
+import sneakycoders.visualreact.level.model.ShapeRow;
 
 // Dynamically instantiated
 @SuppressWarnings("unused")
 public class LevelPair extends Level {
-    // Number of shapes on the screen initially for each row (top and bottom)
-    private int shapesPerRow;
-    // Flag to add random shapes instead of unique ones
-    private boolean uniqueShapes;
-    // Sequences of shapes
-    private List<BaseShape> topShapes;
-    private List<BaseShape> bottomShapes;
-    private List<BaseShape> unusedShapes;
+    // Number of colors for the shapes (each shape keeps the color of its identifier)
+    private static final int NUM_SHAPE_COLORS = 64;
+    // Game logic
+    private PairModel model;
+    // Shapes of every type rasterized once for the size of the cells, as masks drawn with the paint of each shape
+    // Tiles by ordinal in rows of the same length (kept square to fit in a texture), offset from the cells of the shapes
+    private Bitmap atlas;
+    private int atlasColumns;
+    private int tileWidth;
+    private int tileHeight;
+    private int tileOffsetX;
+    private int tileOffsetY;
+    // Rectangles to copy the tiles (reused on each frame)
+    private Rect tileRect;
+    private RectF drawRect;
+    // Flag to see if the result is shown
+    private boolean showResult;
     // Paints and colors
+    private Paint[] shapePaints;
+    private Paint successPaint;
     private int backgroundColor;
-    // Handler
-    private Handler handler;
-    // Update functions
-    private Runnable updateShapes;
     // View
     private LevelPairView rootView;
 
@@ -45,21 +51,19 @@ public class LevelPair extends Level {
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         super.onCreateView(inflater, container, savedInstanceState);
 
-        // Add distinctive shapes
-        uniqueShapes = true;
-
-        // Set the handler
-        handler = new Handler();
-
-        // Number of shapes on the screen
-        shapesPerRow = getResources().getInteger(R.integer.level_pair_shapes_per_row);
-
-        // Sequences of shapes
-        topShapes = new ArrayList<>();
-        bottomShapes = new ArrayList<>();
-        unusedShapes = new ArrayList<>();
+        // Set initial state
+        model = new PairModel(getParameters(), getModelRandom());
+        showResult = false;
 
-        // Paints and colors
+        // Paints and colors (the first ones are distinct for the unique shapes)
+        Integer[] colors = getRandomDistinctiveColors(NUM_SHAPE_COLORS);
+        shapePaints = new Paint[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            shapePaints[i] = new Paint();
+            shapePaints[i].setColor(colors[i]);
+        }
+        successPaint = new Paint();
+        successPaint.setColor(successColor);
         backgroundColor = ContextCompat.getColor(getActivity(), R.color.neutral_dark);
 
         // Create view
@@ -69,344 +73,161 @@ public class LevelPair extends Level {
     }
 
     @Override
-    public boolean onPlayerTap() {
+    public boolean onPlayerTap(long eventTime) {
         // Check initialization
-        if ((rootView == null) || (topShapes.size() == 0)) {
+        if ((rootView == null) || !model.isStarted()) {
             return false;
         }
 
         // Cancel callback
-        handler.removeCallbacksAndMessages(null);
-
-        // Get the width of the screen
-        int width = rootView.getMeasuredWidth();
+        cancelScheduled();
 
-        // Create a map to store the number of different shapes
-        Map<ShapeType, Integer> shapeTypes = new EnumMap<>(ShapeType.class);
-
-        // Concatenate top and bottom list
-        List<BaseShape> shapes = new ArrayList<>(topShapes);
-        shapes.addAll(bottomShapes);
-
-        // Success if there are more than one shape of the same type
-        boolean result = false;
-
-        // Count the number of different shapes
-        for (BaseShape shape : shapes) {
-            if (!shape.isOutOfScreen(width)) {
-                ShapeType shapeType = shape.getShapeType();
-                if (shapeTypes.containsKey(shapeType)) {
-                    shapeTypes.put(shapeType, shapeTypes.get(shapeType) + 1);
-                    result = true;
-                } else {
-                    shapeTypes.put(shapeType, 1);
-                }
-            }
-        }
+        // Success if there are more than one shape of the same type (the shapes are drawn as they are judged)
+        boolean result = model.onPlayerTap(eventTime);
 
         // Change the color of the repeated shapes
-        for (BaseShape shape : shapes) {
-            if ((!shape.isOutOfScreen(width)) && (shapeTypes.get(shape.getShapeType()) > 1)) {
-                shape.setColor(successColor);
-            }
-        }
-
-        // Redraw
-        if (result) {
-            rootView.invalidate();
-        }
+        showResult = true;
+        rootView.invalidate();
 
         return result;
     }
 
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-
-        // Cancel timers
-        handler.removeCallbacksAndMessages(null);
-    }
-
     private void initializeShapes() {
         // Screen size
-        final int width = rootView.getMeasuredWidth();
-        final int height = rootView.getMeasuredHeight();
-
-        // Distance between upper and lower rectangles
-        // Margin (top, middle, bottom)
-        float margin = height * getResources().getFraction(R.fraction.level_pair_vertical_margin, 1, 1);
-
-        // Rectangle to the right of screen where shapes are initialized
-        final float cellWidth = width / ((float) shapesPerRow);
-        final float cellHeight = (height - 3.0f * margin) / 2.0f;
-        final float padding = Math.min(cellWidth, cellHeight) * getResources().getFraction(R.fraction.level_pair_inside_padding, 1, 1);
-
-        // Starting points for the new shapes
-        final float topStartX = -cellWidth;
-        final float topStartY = margin;
-        final float bottomStartX = (float) width;
-        final float bottomStartY = height - margin - cellHeight;
-
-        // Store the initial shapes
-        // Note: there must at least (2 * (shapesPerRow + 1)) unique shapes in allShapes
-        final ShapeType[] shapeTypes = ShapeType.values();
-        final int numUniqueShapes = shapeTypes.length;
-        Integer[] colors = getRandomDistinctiveColors(numUniqueShapes);
-        for (int i = 0; i < numUniqueShapes; i++) {
-            unusedShapes.add(createShape(shapeTypes[i], cellWidth, cellHeight, padding, colors[i]));
-        }
-
-        // Randomly choose shapes for top and bottom
-        Collections.shuffle(unusedShapes);
-        for (int i = 0; i < shapesPerRow; i++) {
-            // Select random shapes and move them to the right position
-            BaseShape topShape = unusedShapes.remove(0);
-            topShape.offsetTo(i * cellWidth, topStartY);
-            BaseShape bottomShape = unusedShapes.remove(0);
-            bottomShape.offsetTo(i * cellWidth, bottomStartY);
-
-            // Put shapes in the lists
-            topShapes.add(topShape);
-            bottomShapes.add(bottomShape);
-        }
-
-        // Movement parameters
-        final int delay = 1000 / getResources().getInteger(R.integer.level_pair_frames_per_second);
-        final int travelTime = randomInt(R.integer.level_pair_minimum_travel_time, R.integer.level_pair_maximum_travel_time);
-        final float dx = width * delay / (float) travelTime;
-
-        // Set movement
-        updateShapes = () -> {
-            // Update the position of the top shapes
-            for (BaseShape shape : topShapes) {
-                shape.offset(dx, 0);
-            }
-
-            // Update the position of the bottom shapes
-            for (BaseShape shape : bottomShapes) {
-                shape.offset(-dx, 0);
-            }
-
-            // Remove top shape if needed
-            if (topShapes.get(topShapes.size() - 1).isOutOfScreen(width)) {
-                // Remove shape
-                BaseShape removed = topShapes.remove(topShapes.size() - 1);
-                if (uniqueShapes) {
-                    unusedShapes.add(removed);
-                }
-            }
-
-            // Add a new top shape if needed
-            if (topShapes.get(0).left() >= 0) {
-                BaseShape shape = uniqueShapes ?
-                        unusedShapes.remove(randomInInterval(0, unusedShapes.size() - 1))
-                        : createShape(shapeTypes[randomInInterval(0, numUniqueShapes - 1)], cellWidth, cellHeight, padding, getRandomDistinctiveColor());
-
-                // Move the shape to its starting position
-                shape.offsetTo(topStartX, topStartY);
-
-                // Add shape
-                topShapes.add(0, shape);
-            }
-
-            // Remove bottom shape if needed
-            if (bottomShapes.get(0).isOutOfScreen(width)) {
-                // Remove shape
-                BaseShape removed = bottomShapes.remove(0);
-                if (uniqueShapes) {
-                    unusedShapes.add(removed);
-                }
-            }
-
-            // Add a new bottom shape if needed
-            if (bottomShapes.get(bottomShapes.size() - 1).right() <= width) {
-                BaseShape shape = uniqueShapes ?
-                        unusedShapes.remove(randomInInterval(0, unusedShapes.size() - 1))
-                        : createShape(shapeTypes[randomInInterval(0, numUniqueShapes - 1)], cellWidth, cellHeight, padding, getRandomDistinctiveColor());
-
-                // Move the shape to its starting position
-                shape.offsetTo(bottomStartX, bottomStartY);
-
-                // Add shape
-                bottomShapes.add(shape);
-            }
-
-            // Redraw
-            rootView.invalidate();
-
-            // Update again after the delay
-            handler.postDelayed(updateShapes, delay);
-        };
-
-        // Set timer to update the shapes
-        handler.postDelayed(updateShapes, delay);
-
-        // Switch to random shapes eventually
-        final int timeBeforeRandomShapes = randomInt(R.integer.level_pair_minimum_time_before_random_shapes, R.integer.level_pair_maximum_time_before_random_shapes);
-        handler.postDelayed(() -> uniqueShapes = false, timeBeforeRandomShapes);
-
-        // Redraw
-        rootView.invalidate();
+        int width = rootView.getMeasuredWidth();
+        int height = rootView.getMeasuredHeight();
+
+        // Move the shapes on every frame
+        runModel(model, width, height, rootView::invalidate);
+
+        // Create the shape of each type, and the bounds of all of them (moons stick out of their cells)
+        ShapeType[] shapeTypes = ShapeType.values();
+        BaseShape[] baseShapes = new BaseShape[shapeTypes.length];
+        RectF bounds = new RectF(0, 0, model.getCellWidth(), model.getCellHeight());
+        RectF shapeBounds = new RectF();
+        for (ShapeType shapeType : shapeTypes) {
+            BaseShape baseShape = createShape(shapeType, model.getCellWidth(), model.getCellHeight(), model.getPadding());
+            baseShape.computeBounds(shapeBounds);
+            bounds.union(shapeBounds);
+            baseShapes[shapeType.ordinal()] = baseShape;
+        }
+
+        // Size of the tiles and offset from the cells
+        Rect tileBounds = new Rect();
+        bounds.roundOut(tileBounds);
+        tileWidth = tileBounds.width();
+        tileHeight = tileBounds.height();
+        tileOffsetX = tileBounds.left;
+        tileOffsetY = tileBounds.top;
+
+        // Rasterize the shapes
+        atlasColumns = (int) Math.ceil(Math.sqrt(shapeTypes.length));
+        int atlasRows = (shapeTypes.length + atlasColumns - 1) / atlasColumns;
+        atlas = Bitmap.createBitmap(tileWidth * atlasColumns, tileHeight * atlasRows, Bitmap.Config.ALPHA_8);
+        Canvas atlasCanvas = new Canvas(atlas);
+        Paint maskPaint = new Paint();
+        for (ShapeType shapeType : shapeTypes) {
+            int tileLeft = (shapeType.ordinal() % atlasColumns) * tileWidth;
+            int tileTop = (shapeType.ordinal() / atlasColumns) * tileHeight;
+            atlasCanvas.save();
+            atlasCanvas.translate(tileLeft - tileOffsetX, tileTop - tileOffsetY);
+            baseShapes[shapeType.ordinal()].draw(atlasCanvas, maskPaint);
+            atlasCanvas.restore();
+        }
+        tileRect = new Rect();
+        drawRect = new RectF();
     }
 
-    public BaseShape createShape(ShapeType shapeType, float cellWidth, float cellHeight, float padding, int color) {
+    public BaseShape createShape(ShapeType shapeType, float cellWidth, float cellHeight, float padding) {
         if (shapeType == ShapeType.Rectangle) {
-            return new Rectangle(cellWidth, cellHeight, padding, color);
+            return new Rectangle(cellWidth, cellHeight, padding);
         } else if (shapeType == ShapeType.Square) {
-            return new Square(cellWidth, cellHeight, padding, color);
+            return new Square(cellWidth, cellHeight, padding);
         } else if (shapeType == ShapeType.Circle) {
-            return new Circle(cellWidth, cellHeight, padding, color);
+            return new Circle(cellWidth, cellHeight, padding);
         } else if (shapeType == ShapeType.Oval) {
-            return new Oval(cellWidth, cellHeight, padding, color);
+            return new Oval(cellWidth, cellHeight, padding);
         } else if (shapeType == ShapeType.CrossTwo) {
-            return new Cross(cellWidth, cellHeight, padding, 2, color);
+            return new Cross(cellWidth, cellHeight, padding, 2);
         } else if (shapeType == ShapeType.CrossThree) {
-            return new Cross(cellWidth, cellHeight, padding, 3, color);
+            return new Cross(cellWidth, cellHeight, padding, 3);
         } else if (shapeType == ShapeType.CrossFour) {
-            return new Cross(cellWidth, cellHeight, padding, 4, color);
+            return new Cross(cellWidth, cellHeight, padding, 4);
         } else if (shapeType == ShapeType.CrossFive) {
-            return new Cross(cellWidth, cellHeight, padding, 5, color);
+            return new Cross(cellWidth, cellHeight, padding, 5);
         } else if (shapeType == ShapeType.CrossSix) {
-            return new Cross(cellWidth, cellHeight, padding, 6, color);
+            return new Cross(cellWidth, cellHeight, padding, 6);
         } else if (shapeType == ShapeType.EquilateralTriangle) {
-            return new EquilateralTriangle(cellWidth, cellHeight, padding, color);
+            return new EquilateralTriangle(cellWidth, cellHeight, padding);
         } else if (shapeType == ShapeType.RightTriangle) {
-            return new RightTriangle(cellWidth, cellHeight, padding, color);
+            return new RightTriangle(cellWidth, cellHeight, padding);
         } else if (shapeType == ShapeType.Arrow) {
-            return new Arrow(cellWidth, cellHeight, padding, color);
+            return new Arrow(cellWidth, cellHeight, padding);
         } else {
-            return new Moon(cellWidth, cellHeight, padding, color);
+            return new Moon(cellWidth, cellHeight, padding);
         }
     }
 
-    // Shape types
-    private enum ShapeType {
-        Rectangle, Square, Circle, Oval, CrossTwo, CrossThree, CrossFour, CrossFive, CrossSix, EquilateralTriangle, RightTriangle, Arrow, Moon
-    }
-
+    // Shape drawn in a cell placed at the origin (one for each type, rasterized into the atlas)
     private abstract class BaseShape {
-        // Shape's paint
-        protected Paint paint;
-        // Shape's outside box - the real shape is centered its box
-        protected RectF box;
-
-        protected BaseShape(float cellWidth, float cellHeight, int color) {
-            this.box = new RectF(0, 0, cellWidth, cellHeight);
-            paint = new Paint();
-            paint.setColor(color);
-        }
-
-        protected abstract ShapeType getShapeType();
-
-        public abstract void draw(Canvas canvas);
+        public abstract void draw(Canvas canvas, Paint paint);
 
-        public void setColor(int color) {
-            paint.setColor(color);
-        }
-
-        public void offset(float dx, float dy) {
-            box.offset(dx, dy);
-        }
-
-        public void offsetTo(float x, float y) {
-            float dx = x - box.left;
-            float dy = y - box.top;
-            this.offset(dx, dy);
-        }
-
-        public float left() {
-            return box.left;
-        }
-
-        public float right() {
-            return box.right;
-        }
-
-        public abstract boolean isOutOfScreen(int width);
+        public abstract void computeBounds(RectF bounds);
     }
 
     private class Rectangle extends BaseShape {
         // Rectangle
         protected RectF rectangle;
 
-        protected Rectangle(float cellWidth, float cellHeight, float width, float height, int color) {
-            super(cellWidth, cellHeight, color);
+        protected Rectangle(float cellWidth, float cellHeight, float width, float height) {
             rectangle = new RectF(
                     (cellWidth - width) / 2.0f, (cellHeight - height) / 2.0f,
                     (cellWidth + width) / 2.0f, (cellHeight + height) / 2.0f);
         }
 
-        public Rectangle(float cellWidth, float cellHeight, float padding, int color) {
+        public Rectangle(float cellWidth, float cellHeight, float padding) {
             this(
                     cellWidth, cellHeight,
-                    cellWidth * getResources().getFraction(R.fraction.level_pair_rectangle_width, 1, 1) - 2.0f * padding, cellHeight - 2.0f * padding,
-                    color);
+                    cellWidth * getResources().getFraction(R.fraction.level_pair_rectangle_width, 1, 1) - 2.0f * padding, cellHeight - 2.0f * padding);
         }
 
         @Override
-        protected ShapeType getShapeType() {
-            return ShapeType.Rectangle;
-        }
-
-        @Override
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, Paint paint) {
             canvas.drawRect(rectangle, paint);
         }
 
         @Override
-        public void offset(float dx, float dy) {
-            super.offset(dx, dy);
-            rectangle.offset(dx, dy);
-        }
-
-        @Override
-        public boolean isOutOfScreen(int width) {
-            return ((rectangle.right < 0) || (rectangle.left >= width));
+        public void computeBounds(RectF bounds) {
+            bounds.set(rectangle);
         }
     }
 
     private class Square extends Rectangle {
-        public Square(float cellWidth, float cellHeight, float padding, int color) {
+        public Square(float cellWidth, float cellHeight, float padding) {
             super(
                     cellWidth, cellHeight, Math.min(cellWidth, cellHeight) - 2.0f * padding,
-                    Math.min(cellWidth, cellHeight) - 2.0f * padding,
-                    color);
-        }
-
-        @Override
-        protected ShapeType getShapeType() {
-            return ShapeType.Square;
+                    Math.min(cellWidth, cellHeight) - 2.0f * padding);
         }
     }
 
     private class Circle extends Square {
-        public Circle(float cellWidth, float cellHeight, float padding, int circleColor) {
-            super(cellWidth, cellHeight, padding, circleColor);
+        public Circle(float cellWidth, float cellHeight, float padding) {
+            super(cellWidth, cellHeight, padding);
         }
 
         @Override
-        protected ShapeType getShapeType() {
-            return ShapeType.Circle;
-        }
-
-        @Override
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, Paint paint) {
             canvas.drawOval(rectangle, paint);
         }
     }
 
     private class Oval extends Rectangle {
-        public Oval(float cellWidth, float cellHeight, float padding, int ovalColor) {
-            super(cellWidth, cellHeight, padding, ovalColor);
-        }
-
-        @Override
-        protected ShapeType getShapeType() {
-            return ShapeType.Oval;
+        public Oval(float cellWidth, float cellHeight, float padding) {
+            super(cellWidth, cellHeight, padding);
         }
 
         @Override
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, Paint paint) {
             canvas.drawOval(rectangle, paint);
         }
     }
@@ -419,9 +240,7 @@ public class LevelPair extends Level {
         // Difference of angle between lines
         private float angleMultiplier;
 
-        public Cross(float cellWidth, float cellHeight, float padding, int numLines, int color) {
-            super(cellWidth, cellHeight, color);
-
+        public Cross(float cellWidth, float cellHeight, float padding, int numLines) {
             // Draw parameters
             this.numLines = numLines;
             angleMultiplier = 180.0f / numLines;
@@ -432,22 +251,7 @@ public class LevelPair extends Level {
         }
 
         @Override
-        protected ShapeType getShapeType() {
-            if (numLines == 2) {
-                return ShapeType.CrossTwo;
-            } else if (numLines == 3) {
-                return ShapeType.CrossThree;
-            } else if (numLines == 4) {
-                return ShapeType.CrossFour;
-            } else if (numLines == 5) {
-                return ShapeType.CrossFive;
-            } else {
-                return ShapeType.CrossSix;
-            }
-        }
-
-        @Override
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, Paint paint) {
             // Draw the lines
             for (int i = 0; i < numLines; i++) {
                 canvas.save();
@@ -458,14 +262,10 @@ public class LevelPair extends Level {
         }
 
         @Override
-        public void offset(float dx, float dy) {
-            super.offset(dx, dy);
-            line.offset(dx, dy);
-        }
-
-        @Override
-        public boolean isOutOfScreen(int width) {
-            return ((line.right < 0) || (line.left >= width));
+        public void computeBounds(RectF bounds) {
+            // Circle where the line rotates
+            float radius = (float) Math.hypot(line.width() / 2.0f, line.height() / 2.0f);
+            bounds.set(line.centerX() - radius, line.centerY() - radius, line.centerX() + radius, line.centerY() + radius);
         }
     }
 
@@ -480,10 +280,6 @@ public class LevelPair extends Level {
         protected float topX;
         protected float topY;
 
-        protected Triangle(float cellWidth, float cellHeight, int color) {
-            super(cellWidth, cellHeight, color);
-        }
-
         protected void setPath() {
             path = new Path();
             path.moveTo(leftX, leftY);
@@ -493,13 +289,16 @@ public class LevelPair extends Level {
         }
 
         @Override
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, Paint paint) {
             canvas.drawPath(path, paint);
         }
 
         @Override
+        public void computeBounds(RectF bounds) {
+            path.computeBounds(bounds, true);
+        }
+
         public void offset(float dx, float dy) {
-            super.offset(dx, dy);
             path.offset(dx, dy);
             leftX += dx;
             leftY += dy;
@@ -508,17 +307,10 @@ public class LevelPair extends Level {
             rightX += dx;
             rightY += dy;
         }
-
-        @Override
-        public boolean isOutOfScreen(int width) {
-            return ((rightX <= 0) || (leftX >= width));
-        }
     }
 
     private class EquilateralTriangle extends Triangle {
-        public EquilateralTriangle(float cellWidth, float cellHeight, float padding, int color) {
-            super(cellWidth, cellHeight, color);
-
+        public EquilateralTriangle(float cellWidth, float cellHeight, float padding) {
             // Vertices
             float size = Math.min(cellWidth, cellHeight) - 2.0f * padding;
             leftX = (cellWidth - size) / 2.0f;
@@ -538,17 +330,10 @@ public class LevelPair extends Level {
             // Path
             setPath();
         }
-
-        @Override
-        protected ShapeType getShapeType() {
-            return ShapeType.EquilateralTriangle;
-        }
     }
 
     private class RightTriangle extends Triangle {
-        public RightTriangle(float cellWidth, float cellHeight, float padding, int color) {
-            super(cellWidth, cellHeight, color);
-
+        public RightTriangle(float cellWidth, float cellHeight, float padding) {
             // Vertices of the right triangle
             float width = cellWidth - 2.0f * padding;
             float height = cellHeight - 2.0f * padding;
@@ -562,11 +347,6 @@ public class LevelPair extends Level {
             // Path
             setPath();
         }
-
-        @Override
-        protected ShapeType getShapeType() {
-            return ShapeType.RightTriangle;
-        }
     }
 
     private class Arrow extends BaseShape {
@@ -575,13 +355,11 @@ public class LevelPair extends Level {
         // Tail of the arrow
         private RectF tail;
 
-        public Arrow(float cellWidth, float cellHeight, float padding, int color) {
-            super(cellWidth, cellHeight, color);
-
+        public Arrow(float cellWidth, float cellHeight, float padding) {
             // Head
             float height = cellHeight - 2.0f * padding;
             float headHeight = height * getResources().getFraction(R.fraction.level_pair_arrow_head_height, 1, 1);
-            head = new EquilateralTriangle(cellWidth - 2.0f * padding, headHeight, 0, color);
+            head = new EquilateralTriangle(cellWidth - 2.0f * padding, headHeight, 0);
             head.offset(padding, padding);
 
             // Tail
@@ -590,49 +368,28 @@ public class LevelPair extends Level {
         }
 
         @Override
-        protected ShapeType getShapeType() {
-            return ShapeType.Arrow;
-        }
-
-        @Override
-        public void setColor(int color) {
-            super.setColor(color);
-            head.setColor(color);
-        }
-
-        @Override
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, Paint paint) {
             canvas.drawRect(tail, paint);
-            head.draw(canvas);
-        }
-
-        @Override
-        public void offset(float dx, float dy) {
-            super.offset(dx, dy);
-            head.offset(dx, dy);
-            tail.offset(dx, dy);
+            head.draw(canvas, paint);
         }
 
         @Override
-        public boolean isOutOfScreen(int width) {
-            return head.isOutOfScreen(width);
+        public void computeBounds(RectF bounds) {
+            head.computeBounds(bounds);
+            bounds.union(tail);
         }
     }
 
     private class Moon extends BaseShape {
-        // Outer arc rectangle
-        private RectF outerRect;
         // Moon's path
         private Path path;
 
-        public Moon(float cellWidth, float cellHeight, float padding, int color) {
-            super(cellWidth, cellHeight, color);
-
+        public Moon(float cellWidth, float cellHeight, float padding) {
             // Rectangles
             float width = cellWidth - 2.0f * padding;
             float innerWidth = cellWidth * getResources().getFraction(R.fraction.level_pair_moon_inner_width, 1, 1);
             RectF innerRect = new RectF((cellWidth - innerWidth) / 2.0f, padding, (cellWidth + innerWidth) / 2.0f, cellHeight - padding);
-            outerRect = new RectF((cellWidth - width) / 2.0f, padding, (cellWidth + width) / 2.0f, cellHeight - padding);
+            RectF outerRect = new RectF((cellWidth - width) / 2.0f, padding, (cellWidth + width) / 2.0f, cellHeight - padding);
 
             // Center
             float diff = -innerWidth / 2.0f;
@@ -646,25 +403,13 @@ public class LevelPair extends Level {
         }
 
         @Override
-        protected ShapeType getShapeType() {
-            return ShapeType.Moon;
-        }
-
-        @Override
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, Paint paint) {
             canvas.drawPath(path, paint);
         }
 
         @Override
-        public void offset(float dx, float dy) {
-            super.offset(dx, dy);
-            path.offset(dx, dy);
-            outerRect.offset(dx, dy);
-        }
-
-        @Override
-        public boolean isOutOfScreen(int width) {
-            return ((outerRect.right <= 0) || (outerRect.left > width));
+        public void computeBounds(RectF bounds) {
+            path.computeBounds(bounds, true);
         }
     }
 
@@ -673,10 +418,27 @@ public class LevelPair extends Level {
             super(c);
         }
 
+        private void drawShapes(Canvas canvas, ShapeRow shapes, float drawOffset) {
+            for (int i = 0; i < shapes.size(); i++) {
+                Shape shape = shapes.get(i);
+                // Repeated shapes are highlighted after a tap
+                Paint paint = (showResult && model.isDuplicate(shape)) ? successPaint : shapePaints[shape.getId() % shapePaints.length];
+
+                // Copy the tile of its type to the cell
+                int tileLeft = (shape.getShapeType().ordinal() % atlasColumns) * tileWidth;
+                int tileTop = (shape.getShapeType().ordinal() / atlasColumns) * tileHeight;
+                tileRect.set(tileLeft, tileTop, tileLeft + tileWidth, tileTop + tileHeight);
+                float left = shape.getX() + drawOffset + tileOffsetX;
+                float top = shape.getY() + tileOffsetY;
+                drawRect.set(left, top, left + tileWidth, top + tileHeight);
+                canvas.drawBitmap(atlas, tileRect, drawRect, paint);
+            }
+        }
+
         @Override
         public void onDraw(Canvas canvas) {
             // Uninitialized
-            if (topShapes.size() == 0) {
+            if (!model.isStarted()) {
                 initializeShapes();
             }
             // Playing
@@ -684,16 +446,14 @@ public class LevelPair extends Level {
                 // Set background color
                 canvas.drawColor(backgroundColor);
 
-                // Draw shapes
-                // Top
-                for (BaseShape topShape : topShapes) {
-                    topShape.draw(canvas);
-                }
+                // Draw shapes where they are between simulation steps
+                float drawOffset = model.getStepFraction() * model.getStepDistance();
+
+                // Top (moving right)
+                drawShapes(canvas, model.getTopShapes(), drawOffset);
 
-                // Bottom
-                for (BaseShape bottomShape : bottomShapes) {
-                    bottomShape.draw(canvas);
-                }
+                // Bottom (moving left)
+                drawShapes(canvas, model.getBottomShapes(), -drawOffset);
             }
         }
     }
@@ -5,7 +5,6 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.os.Bundle;
-import android.os.Handler;
 import android.support.v4.content.ContextCompat;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -13,26 +12,19 @@ import android.view.ViewGroup;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.level.Level;
+import sneakycoders.visualreact.level.model.SingularModel;
 
 // Dynamically instantiated
 @SuppressWarnings("unused")
 public class LevelSingular extends Level {
-    // Cells in the X axis
-    private int cellsX;
-    // Cells in the Y axis
-    private int cellsY;
+    // Game logic
+    private SingularModel model;
     // Cells
     private FaceCell[][] cells;
     // Sad face cell
     private SadFaceCell sadFace;
     // Paint and color
     private int backgroundColor;
-    // Determine result is success or fail
-    private boolean result;
-    // Handler
-    private Handler handler;
-    // Update function
-    private Runnable updateCells;
     // View
     private LevelSingularView rootView;
 
@@ -40,15 +32,8 @@ public class LevelSingular extends Level {
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         super.onCreateView(inflater, container, savedInstanceState);
 
-        // Set the handler
-        handler = new Handler();
-
-        // Number of cells in each axis
-        cellsX = getResources().getInteger(R.integer.level_singular_cells_x);
-        cellsY = getResources().getInteger(R.integer.level_singular_cells_y);
-
-        // Initialize cells
-        cells = new FaceCell[cellsX][cellsY];
+        // Game logic
+        model = new SingularModel(getParameters(), getModelRandom());
 
         // Background color
         backgroundColor = ContextCompat.getColor(getActivity(), R.color.neutral_dark);
@@ -60,14 +45,15 @@ public class LevelSingular extends Level {
     }
 
     @Override
-    public boolean onPlayerTap() {
+    public boolean onPlayerTap(long eventTime) {
         // Check initialization
-        if ((rootView == null) || (cells == null) || (cells[0] == null) || (cells[0][0] == null)) {
+        if ((rootView == null) || (cells == null)) {
             return false;
         }
 
         // Cancel timers
-        handler.removeCallbacksAndMessages(null);
+        cancelScheduled();
+        boolean result = model.onPlayerTap(eventTime);
 
         // Redraw if sad face is shown
         if (result) {
@@ -81,19 +67,16 @@ public class LevelSingular extends Level {
         return result;
     }
 
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-
-        // Cancel timers
-        handler.removeCallbacksAndMessages(null);
-    }
-
     private void initializeCells() {
         // Screen size
         int width = rootView.getMeasuredWidth();
         int height = rootView.getMeasuredHeight();
 
+        // Start the game logic
+        runModel(model, width, height, rootView::invalidate);
+        int cellsX = model.getCellsX();
+        int cellsY = model.getCellsY();
+
         // Cell size
         final float cellWidth = (float) width / cellsX;
         final float cellHeight = (float) height / cellsY;
@@ -115,11 +98,12 @@ public class LevelSingular extends Level {
         // Background color for cells
         final Integer[] colorCells = getRandomColors(cellsX * cellsY);
 
-        // Choose a random cell to change to sad face
-        final int sadFaceX = randomInInterval(0, cellsX - 1);
-        final int sadFaceY = randomInInterval(0, cellsY - 1);
+        // Cell that changes to a sad face
+        final int sadFaceX = model.getSadFaceX();
+        final int sadFaceY = model.getSadFaceY();
 
         // Initialize cells
+        FaceCell[][] cells = new FaceCell[cellsX][cellsY];
         for (int i = 0; i < cellsX; i++) {
             for (int j = 0; j < cellsY; j++) {
                 // Face paint and mouth paint
@@ -167,42 +151,8 @@ public class LevelSingular extends Level {
             }
         }
 
-        // Probability to change one cell to sad face
-        final float prob = randomFloat(R.fraction.level_singular_min_change_face, R.fraction.level_singular_max_change_face);
-
-        // Update cells
-        final int delay = randomInInterval(getResources().getInteger(R.integer.level_singular_min_delay), getResources().getInteger(R.integer.level_singular_max_delay));
-        updateCells = () -> {
-            // Determine whether to change one cell to sad face
-            if ((!result) && (Math.random() <= prob)) {
-                // Substitute cell by a sad face
-                cells[sadFaceX][sadFaceY] = sadFace;
-
-                // Rotate the cell
-                sadFace.setRandomOrientation();
-
-                // Set result to success
-                result = true;
-            }
-            // Choose a random cell and rotate it
-            else {
-                // Select the cell
-                int randomX = randomInInterval(0, cellsX - 1);
-                int randomY = randomInInterval(0, cellsY - 1);
-
-                // Rotate the cell
-                cells[randomX][randomY].setRandomOrientation();
-            }
-
-            // Redraw
-            rootView.invalidate();
-
-            // Update again after the delay
-            handler.postDelayed(updateCells, delay);
-        };
-
-        // Set timer to call the update function
-        handler.postDelayed(updateCells, delay);
+        // Cells are ready to draw
+        this.cells = cells;
 
         // Redraw
         rootView.invalidate();
@@ -220,8 +170,6 @@ public class LevelSingular extends Level {
         // Center of the cell
         protected float centerX;
         protected float centerY;
-        // Orientation of the face
-        protected int orientation;
 
         public FaceCell(Paint facePaint, Paint mouthPaint, float centerX, float centerY, RectF leftEye, RectF rightEye, RectF mouth) {
             // Set paints
@@ -238,20 +186,12 @@ public class LevelSingular extends Level {
 
             // Mouth
             this.mouth = mouth;
-
-            // Orientation
-            orientation = 90 * randomInInterval(0, 3);
         }
 
-        // Change to a random orientation
-        public void setRandomOrientation() {
-            this.orientation = 90 * randomInInterval(0, 3);
-        }
-
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, int orientation) {
             // Rotate the canvas
             canvas.save();
-            canvas.rotate(this.orientation, centerX, centerY);
+            canvas.rotate(orientation, centerX, centerY);
 
             // Draw left eye and right eye
             canvas.drawRect(leftEye, facePaint);
@@ -286,7 +226,7 @@ public class LevelSingular extends Level {
         }
 
         @Override
-        public void draw(Canvas canvas) {
+        public void draw(Canvas canvas, int orientation) {
             // Rotate the canvas
             canvas.save();
             canvas.rotate(orientation, centerX, centerY);
@@ -320,7 +260,7 @@ public class LevelSingular extends Level {
         @Override
         protected void onDraw(Canvas canvas) {
             // Initializing
-            if ((cells == null) || (cells[0] == null) || (cells[0][0] == null)) {
+            if (cells == null) {
                 initializeCells();
             }
             // Playing
@@ -328,10 +268,12 @@ public class LevelSingular extends Level {
                 // Set background color
                 canvas.drawColor(backgroundColor);
 
-                // Draw faces
-                for (int i = 0; i < cellsX; i++) {
-                    for (int j = 0; j < cellsY; j++) {
-                        cells[i][j].draw(canvas);
+                // Draw faces (the sad face substitutes its cell once it is shown)
+                for (int i = 0; i < model.getCellsX(); i++) {
+                    for (int j = 0; j < model.getCellsY(); j++) {
+                        boolean sad = model.isSadFaceShown() && (i == model.getSadFaceX()) && (j == model.getSadFaceY());
+                        FaceCell cell = sad ? sadFace : cells[i][j];
+                        cell.draw(canvas, model.getOrientation(i, j));
                     }
                 }
             }
@@ -0,0 +1,196 @@
+package sneakycoders.visualreact.match;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.preference.PreferenceManager;
+import android.support.v4.content.ContextCompat;
+import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.TextView;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import sneakycoders.visualreact.R;
+import sneakycoders.visualreact.level.PresentationTimer;
+
+// Measures the display latency of each player area, to compensate the reaction times of the match
+// Taps already carry the time of the touch, so the delay of their dispatch is only logged
+public class Calibration extends AppCompatActivity {
+    // Tag for the log messages
+    private static final String LOG_TAG = "Calibration";
+    // Prefix of the preference keys of the presentation delays (followed by the player number)
+    private static final String PRESENTATION_DELAY_KEY = "presentation_delay_player_";
+    // Calibration of each player area
+    private AreaCalibration player1;
+    private AreaCalibration player2;
+    // Colors
+    private int colorNeutral;
+    private int colorLit;
+    private int colorDone;
+    // Random number generator (for the delays before lighting the areas)
+    private Random random;
+    // Handler for callbacks
+    private Handler handler;
+
+    public static long getPresentationDelay(Context context, int player) {
+        return PreferenceManager.getDefaultSharedPreferences(context).getLong(PRESENTATION_DELAY_KEY + player, 0);
+    }
+
+    private static void setPresentationDelay(Context context, int player, long presentationDelay) {
+        PreferenceManager.getDefaultSharedPreferences(context)
+                .edit()
+                .putLong(PRESENTATION_DELAY_KEY + player, presentationDelay)
+                .apply();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Inflate layout
+        setContentView(R.layout.calibration);
+
+        // Prevent screen from turning off
+        getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+
+        // Get colors
+        colorNeutral = ContextCompat.getColor(this, R.color.neutral_primary);
+        colorLit = ContextCompat.getColor(this, R.color.accent);
+        colorDone = ContextCompat.getColor(this, R.color.success_primary);
+
+        // Set handler and random number generator
+        handler = new Handler();
+        random = new Random();
+
+        // Calibrate both areas, they are rotated separately and may have different latencies
+        player1 = new AreaCalibration(1, R.id.calibration_area_player_1, R.id.calibration_text_player_1);
+        player2 = new AreaCalibration(2, R.id.calibration_area_player_2, R.id.calibration_text_player_2);
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+
+        // Remove all callbacks, the pending samples are discarded
+        handler.removeCallbacksAndMessages(null);
+        player1.cancel();
+        player2.cancel();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+
+        // Continue where we left off
+        player1.nextSample();
+        player2.nextSample();
+    }
+
+    // Calibration of a player area
+    private class AreaCalibration {
+        // Player number
+        private final int player;
+        // Player area
+        private final View area;
+        // Instructions and result text
+        private final TextView text;
+        // Presentation of the lit area
+        private final PresentationTimer presentationTimer;
+        // Delays (in nanoseconds) between the touch and its dispatch, and between the drawing and its presentation
+        private final long[] dispatchDelays;
+        private final long[] presentationDelays;
+        // Number of samples taken
+        private int samples;
+        // Flag to see if the area is lit on the screen
+        private boolean lit;
+
+        AreaCalibration(int player, int area, int text) {
+            this.player = player;
+            this.area = findViewById(area);
+            this.text = findViewById(text);
+            presentationTimer = new PresentationTimer();
+
+            // Set initial state
+            int nSamples = getResources().getInteger(R.integer.calibration_samples);
+            dispatchDelays = new long[nSamples];
+            presentationDelays = new long[nSamples];
+            samples = 0;
+            lit = false;
+
+            // Register the taps on touch down
+            Player.setOnTapListener(this.area, this::onTap);
+        }
+
+        void nextSample() {
+            // Check the calibration has not finished
+            if (samples == dispatchDelays.length) {
+                return;
+            }
+
+            // Light the area after a random delay
+            lit = false;
+            area.setBackgroundColor(colorNeutral);
+            int minDelay = getResources().getInteger(R.integer.calibration_min_delay);
+            int maxDelay = getResources().getInteger(R.integer.calibration_max_delay);
+            handler.postDelayed(this::light, minDelay + random.nextInt(maxDelay - minDelay + 1));
+        }
+
+        void cancel() {
+            presentationTimer.cancel();
+        }
+
+        private void light() {
+            area.setBackgroundColor(colorLit);
+
+            // Accept taps once the area is on the screen
+            presentationTimer.request(presentationTime -> {
+                presentationDelays[samples] = presentationTimer.getPresentationDelay();
+                lit = true;
+            });
+        }
+
+        private void onTap(long eventTime) {
+            // Ignore taps before the area is lit
+            if (!lit) {
+                return;
+            }
+
+            // Time between the touch and the dispatch of its event
+            dispatchDelays[samples] = System.nanoTime() - eventTime;
+            samples++;
+
+            // Finish or take the next sample
+            if (samples == dispatchDelays.length) {
+                finishCalibration();
+            } else {
+                nextSample();
+            }
+        }
+
+        private void finishCalibration() {
+            lit = false;
+
+            // Medians are robust to the occasional missed frame or late tap
+            long dispatchDelay = median(dispatchDelays);
+            long presentationDelay = median(presentationDelays);
+            setPresentationDelay(Calibration.this, player, presentationDelay);
+            Log.i(LOG_TAG, String.format(Locale.US, "Player %d: dispatch delay %.3f ms, presentation delay %.3f ms",
+                    player, dispatchDelay / 1e6, presentationDelay / 1e6));
+
+            // Show the result
+            area.setBackgroundColor(colorDone);
+            text.setText(getString(R.string.calibration_result, presentationDelay / 1e6));
+        }
+    }
+}
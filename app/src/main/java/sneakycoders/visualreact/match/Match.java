@@ -6,25 +6,58 @@ import android.os.Handler;
 import android.preference.PreferenceManager;
 import android.support.v7.app.AlertDialog;
 import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
+import android.view.Choreographer;
 import android.view.View;
 import android.view.WindowManager;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import sneakycoders.visualreact.R;
 import sneakycoders.visualreact.launcher.Launcher;
 import sneakycoders.visualreact.level.Level;
 import sneakycoders.visualreact.level.LevelsFactory;
+import sneakycoders.visualreact.level.MatchClock;
+import sneakycoders.visualreact.level.SplitMix64;
 
 public class Match extends AppCompatActivity {
+    // Intent extra with the seed of the match (to reproduce it)
+    public static final String EXTRA_SEED = "seed";
+    // Tag for the log messages
+    private static final String LOG_TAG = "Match";
+    // Time of a tap not registered yet
+    private static final long NO_TAP = Long.MAX_VALUE;
     // Current state of the match
     private State state;
+    // Clock of the match, shared with the levels
+    private MatchClock clock;
     // Player 1
     private Player player1;
     // Player 2
     private Player player2;
     // Last player tap information
     private Player lastTap;
+    private long lastTapTime;
+    // Taps registered during the current frame, pending arbitration (match time)
+    private long player1TapTime;
+    private long player2TapTime;
+    // Arbitration of the taps registered during a frame
+    private Choreographer.FrameCallback arbitrateTaps;
+    // Window (in nanoseconds) under which taps from both players are logged as a tie
+    private long tieWindow;
+    // Seed of the match and of the next one
+    private long seed;
+    private long nextSeed;
+    // Current round, each one draws from its own generator derived from the seed
+    private int round;
+    // Random number generator of the match (levels sequence and exact ties)
+    private Random random;
+    // Replay of the match (null if it cannot be recorded)
+    private ReplayRecorder replayRecorder;
     // Remaining levels
     private List<String> remainingLevels;
     // Current level
@@ -64,24 +97,60 @@ public class Match extends AppCompatActivity {
         player1 = new Player(this, R.id.area_player_1, R.id.score_player_1, R.id.tap_text_player_1, R.id.level_name_player_1, R.id.level_description_player_1, R.id.standing_player_1);
         player2 = new Player(this, R.id.area_player_2, R.id.score_player_2, R.id.tap_text_player_2, R.id.level_name_player_2, R.id.level_description_player_2, R.id.standing_player_2);
 
+        // Register player taps on touch down
+        player1.setOnTapListener(eventTime -> playerTap(player1, eventTime));
+        player2.setOnTapListener(eventTime -> playerTap(player2, eventTime));
+
+        // Set the presentation delay of each player area measured by the calibration
+        player1.setPresentationDelay(Calibration.getPresentationDelay(this, 1));
+        player2.setPresentationDelay(Calibration.getPresentationDelay(this, 2));
+
         // Read show tips flag
         showTips = PreferenceManager.getDefaultSharedPreferences(this).getBoolean("show_level_tips", false);
 
         // Set handler
         handler = new Handler();
 
+        // Set tap arbitration
+        arbitrateTaps = frameTimeNanos -> arbitrateTaps();
+        tieWindow = TimeUnit.MICROSECONDS.toNanos(getResources().getInteger(R.integer.match_tie_window));
+
+        // Seed of the first match
+        nextSeed = getIntent().getLongExtra(EXTRA_SEED, System.nanoTime());
+
         // Start match
         startMatch(null);
     }
 
     public void startMatch(@SuppressWarnings("UnusedParameters") View view) {
+        // Seed the match, rematches are derived from the previous seed
+        seed = nextSeed;
+        random = new SplitMix64(seed);
+        nextSeed = random.nextLong();
+        round = 0;
+        Log.i(LOG_TAG, "Match seed: " + seed);
+
         // Levels sequence
-        remainingLevels = LevelsFactory.getLevelsSequence(this);
+        remainingLevels = LevelsFactory.getLevelsSequence(this, random);
+
+        // Record the match
+        try {
+            replayRecorder = ReplayRecorder.create(this, seed, remainingLevels);
+        } catch (IOException e) {
+            Log.w(LOG_TAG, "Cannot record the match replay", e);
+            replayRecorder = null;
+        }
+
+        // Start the clock
+        clock = new MatchClock();
 
         // Reset current level
         currentLevelId = "";
         currentLevel = null;
 
+        // Reset taps
+        resetTaps();
+
         // Reset players
         player1.reset();
         player2.reset();
@@ -126,6 +195,8 @@ public class Match extends AppCompatActivity {
         else if (state == State.Level) {
             // Replace current level
             currentLevel = LevelsFactory.getLevel(currentLevelId);
+            currentLevel.setClock(clock);
+            currentLevel.setRandom(SplitMix64.forRound(seed, round));
             getSupportFragmentManager().executePendingTransactions();
             getSupportFragmentManager()
                     .beginTransaction()
@@ -142,20 +213,38 @@ public class Match extends AppCompatActivity {
         }
         // Level result
         else if (state == State.LevelResult) {
-            if (currentLevel.onPlayerTap()) {
+            boolean success = currentLevel.onPlayerTap(lastTapTime);
+
+            // Onsets requested but not presented yet are compensated with the presentation delay of the player area
+            // Taps already carry the time of the touch, and some levels already take the onset when it is presented
+            long presentationDelay = currentLevel.isStimulusOnsetPresented() ? 0 : lastTap.getPresentationDelay();
+            if (success) {
                 lastTap.setStateSuccess();
+
+                // Reaction time since the success condition was on the screen
+                if (currentLevel.hasStimulusOnset()) {
+                    reportReactionTime(lastTap, lastTapTime - currentLevel.getStimulusOnset() - presentationDelay);
+                }
             } else {
                 lastTap.setStateFail();
             }
 
+            // Record the round
+            if (replayRecorder != null) {
+                replayRecorder.recordRound(round, (lastTap == player1) ? 1 : 2, success,
+                        currentLevel.getStimulusOnset(), lastTapTime, presentationDelay);
+            }
+            round++;
+
             // Switch to next state after a delay
             delayNextState();
         }
         // Final standings
         else {
             // Winner/loser
-            if (player1.getScore() != player2.getScore()) {
-                boolean player1Wins = player1.getScore() > player2.getScore();
+            int standing = Score.compare(player1.getScore(), player2.getScore());
+            if (standing != 0) {
+                boolean player1Wins = (standing < 0);
                 Player winner = player1Wins ? player1 : player2;
                 Player loser = player1Wins ? player2 : player1;
                 winner.setStateWinner();
@@ -173,10 +262,9 @@ public class Match extends AppCompatActivity {
         }
     }
 
-    public void playerTap(View view) {
+    private void playerTap(Player player, long eventTime) {
         // Switch to level
         if (state == State.LevelInfo) {
-            Player player = (view.getId() == R.id.area_player_1) ? player1 : player2;
             player.setReady(true);
 
             // Actually switch only if both players are ready
@@ -185,15 +273,64 @@ public class Match extends AppCompatActivity {
                 displayState();
             }
         }
-        // Store the player who tapped, switch to level result
+        // Buffer the tap, the winner is decided once every tap of the frame has been registered
         else if (state == State.Level) {
-            lastTap = (view.getId() == R.id.area_player_1) ? player1 : player2;
-            state = State.LevelResult;
-            displayState();
+            // Arbitrate on the next frame
+            if ((player1TapTime == NO_TAP) && (player2TapTime == NO_TAP)) {
+                Choreographer.getInstance().postFrameCallback(arbitrateTaps);
+            }
+
+            // Keep only the first tap of each player (in match time)
+            long tapTime = clock.toMatchTime(eventTime);
+            if (player == player1) {
+                player1TapTime = Math.min(player1TapTime, tapTime);
+            } else {
+                player2TapTime = Math.min(player2TapTime, tapTime);
+            }
         }
         // Do nothing in the rest of the cases
     }
 
+    private void arbitrateTaps() {
+        // Check the level has not finished in the meantime
+        if (state != State.Level) {
+            resetTaps();
+            return;
+        }
+
+        // The earliest touch down wins, exact ties are broken randomly
+        boolean player1First = (player1TapTime < player2TapTime)
+                || ((player1TapTime == player2TapTime) && random.nextBoolean());
+        lastTap = player1First ? player1 : player2;
+        lastTapTime = Math.min(player1TapTime, player2TapTime);
+
+        // Log taps too close to tell apart
+        if ((player1TapTime != NO_TAP) && (player2TapTime != NO_TAP)) {
+            long difference = Math.abs(player1TapTime - player2TapTime);
+            if (difference <= tieWindow) {
+                Log.i(LOG_TAG, String.format(Locale.US, "Level %s: tie between players (%.3f ms apart), player %d wins",
+                        currentLevelId, difference / 1e6, player1First ? 1 : 2));
+            }
+        }
+
+        // Switch to level result
+        resetTaps();
+        state = State.LevelResult;
+        displayState();
+    }
+
+    private void resetTaps() {
+        player1TapTime = NO_TAP;
+        player2TapTime = NO_TAP;
+    }
+
+    private void reportReactionTime(Player player, long reactionTime) {
+        // Keep track of the reaction times of the player
+        player.getScore().addReactionTime(reactionTime);
+        Log.i(LOG_TAG, String.format(Locale.US, "Level %s: reaction time %.3f ms (player average %.3f ms)",
+                currentLevelId, reactionTime / 1e6, player.getScore().getAverageReactionTime() / 1e6));
+    }
+
     private void delayNextState() {
         handler.postDelayed(() -> {
             getSupportFragmentManager().executePendingTransactions();
@@ -208,13 +345,19 @@ public class Match extends AppCompatActivity {
     }
 
     @Override
-    public void onUserLeaveHint() {
-        // Remove all callbacks
+    public void onPause() {
+        super.onPause();
+
+        // Remove all callbacks and stop the time of the level
         handler.removeCallbacksAndMessages(null);
+        clock.freeze();
     }
 
     @Override
     public void onResume() {
+        // Resume the time before the level resumes its updates
+        clock.thaw();
+
         super.onResume();
 
         // Continue where we left off
@@ -246,6 +389,7 @@ public class Match extends AppCompatActivity {
 
         // Remove all callbacks
         handler.removeCallbacksAndMessages(null);
+        Choreographer.getInstance().removeFrameCallback(arbitrateTaps);
     }
 
     private void switchToLauncher() {
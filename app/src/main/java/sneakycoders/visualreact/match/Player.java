@@ -1,18 +1,29 @@
 package sneakycoders.visualreact.match;
 
+import android.annotation.SuppressLint;
 import android.app.Activity;
+import android.os.Build;
 import android.support.v4.content.ContextCompat;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.animation.AlphaAnimation;
 import android.view.animation.Animation;
 import android.widget.TextView;
 
+import java.lang.reflect.Method;
 import java.text.NumberFormat;
+import java.util.concurrent.TimeUnit;
 
 import sneakycoders.visualreact.R;
 
 // Player information and data bindings
 class Player {
+    // First version with the event time in nanoseconds (Android 14)
+    private static final int EVENT_TIME_NANOS_SDK = 34;
+    // Event time with nanosecond precision (MotionEvent.getEventTimeNanos(), null before it is available)
+    private static final Method EVENT_TIME_NANOS = getEventTimeNanosMethod();
+    // Arguments of the event time in nanoseconds (reused on each tap)
+    private static final Object[] NO_ARGUMENTS = new Object[0];
     // Player area
     final private View area;
     // Score text
@@ -38,8 +49,10 @@ class Player {
     final private int colorTieLight;
     // Player is ready
     private boolean ready;
-    // Score
-    private int score;
+    // Score and reaction times
+    final private Score score;
+    // Delay (in nanoseconds) between drawing a change in the player area and its presentation, measured by the calibration
+    private long presentationDelay;
 
     public Player(Activity activity, int area, int scoreText, int tapText, int levelNameText, int levelDescriptionText, int standingText) {
         // Views
@@ -51,7 +64,8 @@ class Player {
         this.standingText = activity.findViewById(standingText);
 
         // Set initial state
-        score = 0;
+        score = new Score();
+        presentationDelay = 0;
         setReady(false);
 
         // Blink animation
@@ -74,24 +88,70 @@ class Player {
         colorTieLight = ContextCompat.getColor(activity, R.color.tie_light);
     }
 
-    public int getScore() {
+    public Score getScore() {
         // Get the score
         return score;
     }
 
     public void reset() {
         // Reset the state
-        setScoreOffset(-score);
+        score.reset();
+        updateScoreText();
         setReady(false);
 
         // Cancel animation
         blink.cancel();
     }
 
-    private void setScoreOffset(int offset) {
-        // Set score by specifying the offset
-        score += offset;
-        scoreText.setText(NumberFormat.getIntegerInstance().format(score));
+    public long getPresentationDelay() {
+        return presentationDelay;
+    }
+
+    public void setPresentationDelay(long presentationDelay) {
+        this.presentationDelay = presentationDelay;
+    }
+
+    private void updateScoreText() {
+        scoreText.setText(NumberFormat.getIntegerInstance().format(score.getPoints()));
+    }
+
+    public void setOnTapListener(OnTapListener listener) {
+        setOnTapListener(area, listener);
+    }
+
+    @SuppressLint("ClickableViewAccessibility")
+    static void setOnTapListener(View area, OnTapListener listener) {
+        // Register the tap as soon as the finger touches the area, instead of when it is lifted
+        area.setOnTouchListener((view, event) -> {
+            if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                listener.onTap(getEventTime(event));
+            }
+            return true;
+        });
+    }
+
+    private static long getEventTime(MotionEvent event) {
+        // Touch events use the uptime clock, the same monotonic clock as System.nanoTime()
+        if (EVENT_TIME_NANOS != null) {
+            try {
+                return (long) EVENT_TIME_NANOS.invoke(event, NO_ARGUMENTS);
+            } catch (Exception e) {
+                // Fall back to millisecond precision
+            }
+        }
+        return TimeUnit.MILLISECONDS.toNanos(event.getEventTime());
+    }
+
+    private static Method getEventTimeNanosMethod() {
+        // Only look it up where it exists, older versions use the event time in milliseconds directly
+        if (Build.VERSION.SDK_INT < EVENT_TIME_NANOS_SDK) {
+            return null;
+        }
+        try {
+            return MotionEvent.class.getMethod("getEventTimeNanos");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
     }
 
     public boolean isReady() {
@@ -128,7 +188,8 @@ class Player {
 
     public void setStateFail() {
         // Decrease score
-        setScoreOffset(-1);
+        score.addFail();
+        updateScoreText();
 
         // Set colors
         area.setBackgroundColor(colorFailPrimary);
@@ -137,7 +198,8 @@ class Player {
 
     public void setStateSuccess() {
         // Increase score
-        setScoreOffset(1);
+        score.addSuccess();
+        updateScoreText();
 
         // Set colors
         area.setBackgroundColor(colorSuccessPrimary);
@@ -171,4 +233,10 @@ class Player {
         area.startAnimation(blink);
         standingText.startAnimation(blink);
     }
+
+    // Callback when the player touches its area
+    interface OnTapListener {
+        // Event time of the touch down, in nanoseconds (System.nanoTime() time base)
+        void onTap(long eventTime);
+    }
 }
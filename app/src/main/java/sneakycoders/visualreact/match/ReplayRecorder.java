@@ -0,0 +1,123 @@
+package sneakycoders.visualreact.match;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import sneakycoders.visualreact.R;
+import sneakycoders.visualreact.level.LevelsFactory;
+
+// Binary log of a match, appended through a memory mapped file
+// Every record has the same width, and the header keeps the number of complete records:
+// the mapped pages belong to the system, so the log survives the process up to its last complete record
+//
+// Layout (little endian):
+//   Header: magic (int), version (short), record size (short), seed (long), rounds (int), records (int), padding
+//   Record: type (byte), player (byte), success (byte), padding (byte), round (int), three values (long)
+//     Level: level index in R.array.levels
+//     Round: stimulus onset (or Level.NO_STIMULUS_ONSET), tap time (match time) and presentation delay compensated
+//            (0 if the onset is already the time it was presented), in nanoseconds
+class ReplayRecorder {
+    // Record types
+    private static final byte RECORD_LEVEL = 1;
+    private static final byte RECORD_ROUND = 2;
+    // File format
+    private static final int MAGIC = 0x50525256;
+    private static final short VERSION = 2;
+    private static final int RECORD_SIZE = 32;
+    private static final int RECORDS_OFFSET = 20;
+    // Replays directory and file name format
+    private static final String REPLAYS_DIRECTORY = "replays";
+    private static final String REPLAY_FILE_FORMAT = "match-%013d.replay";
+    // Mapped file
+    private final MappedByteBuffer buffer;
+    // Number of complete records
+    private int records;
+
+    private ReplayRecorder(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        records = 0;
+    }
+
+    static ReplayRecorder create(Context context, long seed, List<String> levelsSequence) throws IOException {
+        // Create the file and remove the oldest ones
+        File directory = new File(context.getFilesDir(), REPLAYS_DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        removeOldReplays(directory, context.getResources().getInteger(R.integer.match_replays_kept) - 1);
+        File file = new File(directory, String.format(Locale.US, REPLAY_FILE_FORMAT, System.currentTimeMillis()));
+
+        // Map the whole log at once: one level record and one round record per round
+        int rounds = levelsSequence.size();
+        long size = RECORD_SIZE + (2L * rounds * RECORD_SIZE);
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        // Header
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) RECORD_SIZE);
+        buffer.putLong(8, seed);
+        buffer.putInt(16, rounds);
+        buffer.putInt(RECORDS_OFFSET, 0);
+
+        // Levels sequence
+        ReplayRecorder recorder = new ReplayRecorder(buffer);
+        List<String> levelIds = LevelsFactory.getLevelIds(context);
+        for (int round = 0; round < rounds; round++) {
+            recorder.append(RECORD_LEVEL, round, 0, false, levelIds.indexOf(levelsSequence.get(round)), 0, 0);
+        }
+
+        return recorder;
+    }
+
+    private static void removeOldReplays(File directory, int kept) {
+        // File names sort by creation time
+        File[] replays = directory.listFiles();
+        if ((replays == null) || (replays.length <= kept)) {
+            return;
+        }
+        Arrays.sort(replays);
+        for (int i = 0; i < (replays.length - kept); i++) {
+            replays[i].delete();
+        }
+    }
+
+    void recordRound(int round, int player, boolean success, long stimulusOnset, long tapTime, long presentationDelay) {
+        append(RECORD_ROUND, round, player, success, stimulusOnset, tapTime, presentationDelay);
+    }
+
+    private void append(byte type, int round, int player, boolean success, long value1, long value2, long value3) {
+        // Ignore records beyond the mapped size
+        int position = RECORD_SIZE + (records * RECORD_SIZE);
+        if ((position + RECORD_SIZE) > buffer.capacity()) {
+            return;
+        }
+
+        // Write the record
+        buffer.put(position, type);
+        buffer.put(position + 1, (byte) player);
+        buffer.put(position + 2, (byte) (success ? 1 : 0));
+        buffer.put(position + 3, (byte) 0);
+        buffer.putInt(position + 4, round);
+        buffer.putLong(position + 8, value1);
+        buffer.putLong(position + 16, value2);
+        buffer.putLong(position + 24, value3);
+
+        // Commit it once it is complete
+        records++;
+        buffer.putInt(RECORDS_OFFSET, records);
+    }
+}
@@ -0,0 +1,36 @@
+package sneakycoders.visualreact.benchmarks;
+
+import java.io.File;
+import java.util.List;
+
+import sneakycoders.visualreact.harness.XmlParameters;
+
+// Resources of the app read outside Android
+final class AppResources {
+    // Seed of every benchmark, so that runs on different builds play the same rounds
+    static final long SEED = 0x5eedL;
+    // Size of the virtual screen
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 960;
+    // Directory of the resources (set by the build, relative to the root of the project otherwise)
+    private static final String RESOURCES_DIRECTORY = System.getProperty("visualreact.resources", "app/src/main/res/values");
+
+    private AppResources() {
+    }
+
+    static XmlParameters load() throws Exception {
+        return new XmlParameters(
+                new File(RESOURCES_DIRECTORY, "ingame.xml"),
+                new File(RESOURCES_DIRECTORY, "arrays.xml"),
+                new File(RESOURCES_DIRECTORY, "colors.xml"));
+    }
+
+    static int[] parseColors(List<String> hexPalette) {
+        // Colors in #RRGGBB format, opaque
+        int[] colors = new int[hexPalette.size()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = 0xff000000 | Integer.parseInt(hexPalette.get(i).substring(1), 16);
+        }
+        return colors;
+    }
+}
@@ -0,0 +1,46 @@
+package sneakycoders.visualreact.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.level.SplitMix64;
+import sneakycoders.visualreact.level.model.ConnectionModel;
+import sneakycoders.visualreact.level.model.LevelParameters;
+
+// Cost of the updates and the tap of LevelConnection with several pairs of extremes (which the app ships disabled)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConnectionMultiBenchmark {
+    // Level being updated
+    private ConnectionModel model;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Always play with several pairs
+        LevelParameters parameters = new ParameterOverrides(AppResources.load())
+                .setFraction("level_connection_multi_probability", 1);
+        model = new ConnectionModel(parameters, new SplitMix64(AppResources.SEED));
+        model.start(AppResources.WIDTH, AppResources.HEIGHT, 0);
+    }
+
+    @Benchmark
+    public boolean update() {
+        // Change one cell and update the components it touches
+        model.advanceTo(model.getNextUpdateTime());
+        return model.isSuccess();
+    }
+
+    @Benchmark
+    public boolean tap() {
+        // Judge the tap (no walk of the grid)
+        return model.onPlayerTap(model.getNextUpdateTime());
+    }
+}
@@ -0,0 +1,139 @@
+package sneakycoders.visualreact.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.harness.Simulation;
+import sneakycoders.visualreact.level.SplitMix64;
+import sneakycoders.visualreact.level.model.CollisionModel;
+import sneakycoders.visualreact.level.model.ConnectionModel;
+import sneakycoders.visualreact.level.model.LevelModel;
+import sneakycoders.visualreact.level.model.LevelParameters;
+import sneakycoders.visualreact.level.model.LineModel;
+import sneakycoders.visualreact.level.model.PairModel;
+
+// Cost of the success checks that run on every update and on every tap, on fixed states of the levels
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LevelCheckBenchmark {
+    // Time the animated levels are played before being checked
+    private static final long PLAY_TIME = TimeUnit.SECONDS.toNanos(5);
+    // Levels in their checked state
+    private ConnectionModel connection;
+    private LineModel line;
+    private CollisionModel collision;
+    // Path followed in the connection
+    private int[] path;
+    // Time of the taps
+    private long lineTapTime;
+    private long collisionTapTime;
+
+    @Setup
+    public void setUp() throws Exception {
+        LevelParameters parameters = AppResources.load();
+        Simulation simulation = new Simulation(parameters, AppResources.WIDTH, AppResources.HEIGHT);
+
+        // Connection after some cells have been updated
+        connection = (ConnectionModel) start(simulation, "connection");
+        connection.advanceTo(PLAY_TIME);
+        path = new int[connection.getNumCells()];
+
+        // Line with every cell filled (one cell per update)
+        line = (LineModel) start(simulation, "line");
+        int nCells = line.getCells() * line.getCells();
+        for (int i = 0; i < nCells; i++) {
+            lineTapTime = line.getNextUpdateTime();
+            line.advanceTo(lineTapTime);
+        }
+
+        // Collision in the middle of its animation
+        collision = (CollisionModel) start(simulation, "collision");
+        collisionTapTime = PLAY_TIME;
+        collision.advanceTo(collisionTapTime);
+    }
+
+    private static LevelModel start(Simulation simulation, String levelId) {
+        LevelModel model = simulation.createModel(levelId, new SplitMix64(AppResources.SEED));
+        model.start(AppResources.WIDTH, AppResources.HEIGHT, 0);
+        return model;
+    }
+
+    @Benchmark
+    public int connectionFollowPath() {
+        return connection.followPath(true, 0, path);
+    }
+
+    @Benchmark
+    public boolean connectionTap() {
+        return connection.onPlayerTap(PLAY_TIME);
+    }
+
+    @Benchmark
+    public boolean lineTap() {
+        return line.onPlayerTap(lineTapTime);
+    }
+
+    @Benchmark
+    public boolean pairStep(PairState state) {
+        // One step of the shapes, which maintains the visible duplicates
+        state.time += state.stepTime;
+        state.pair.advanceTo(state.time);
+        return state.pair.isSuccess();
+    }
+
+    @Benchmark
+    public boolean collisionShapesCollide() {
+        return collision.isSuccess();
+    }
+
+    @Benchmark
+    public boolean collisionTap() {
+        // Includes the search of the moment the shapes started colliding
+        return collision.onPlayerTap(collisionTapTime);
+    }
+
+    // Pair in the middle of its animation, stepped over the same window of the round again and again
+    @State(Scope.Thread)
+    public static class PairState {
+        // Time the pair is stepped before being played again from the middle of its animation
+        private static final long WINDOW_TIME = TimeUnit.SECONDS.toNanos(10);
+        // Levels on the virtual screen
+        private Simulation simulation;
+        // Pair, its time and the time between its steps
+        private PairModel pair;
+        private long time;
+        private long stepTime;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws Exception {
+            // Every iteration steps the same shapes
+            LevelParameters parameters = AppResources.load();
+            simulation = new Simulation(parameters, AppResources.WIDTH, AppResources.HEIGHT);
+            stepTime = TimeUnit.SECONDS.toNanos(1) / parameters.getInteger("level_pair_steps_per_second");
+            startPair();
+        }
+
+        @Setup(Level.Invocation)
+        public void nextStep() {
+            // Back to the middle of the animation when the window is over (outside of the measured step)
+            if ((time + stepTime) > (PLAY_TIME + WINDOW_TIME)) {
+                startPair();
+            }
+        }
+
+        private void startPair() {
+            pair = (PairModel) start(simulation, "pair");
+            time = PLAY_TIME;
+            pair.advanceTo(time);
+        }
+    }
+}
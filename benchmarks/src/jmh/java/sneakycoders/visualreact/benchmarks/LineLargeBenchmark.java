@@ -0,0 +1,62 @@
+package sneakycoders.visualreact.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.level.SplitMix64;
+import sneakycoders.visualreact.level.model.LevelParameters;
+import sneakycoders.visualreact.level.model.LineModel;
+
+// Cost of the updates and the tap of LevelLine on the large grid (which the app ships disabled)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LineLargeBenchmark {
+    // Level being filled, and level with every cell filled
+    private LineModel filling;
+    private LineModel full;
+    // Time of the tap
+    private long tapTime;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Always play on the large grid
+        LevelParameters parameters = new ParameterOverrides(AppResources.load())
+                .setFraction("level_line_large_grid_probability", 1);
+        filling = start(parameters);
+        full = start(parameters);
+
+        // Fill every cell (one cell per update)
+        int nCells = full.getCells() * full.getCells();
+        for (int i = 0; i < nCells; i++) {
+            tapTime = full.getNextUpdateTime();
+            full.advanceTo(tapTime);
+        }
+    }
+
+    private static LineModel start(LevelParameters parameters) {
+        LineModel model = new LineModel(parameters, new SplitMix64(AppResources.SEED));
+        model.start(AppResources.WIDTH, AppResources.HEIGHT, 0);
+        return model;
+    }
+
+    @Benchmark
+    public boolean update() {
+        // Fill one cell (the grid is emptied once it is full)
+        filling.advanceTo(filling.getNextUpdateTime());
+        return filling.isSuccess();
+    }
+
+    @Benchmark
+    public boolean tap() {
+        // Highlight every winning run of the full grid
+        return full.onPlayerTap(tapTime);
+    }
+}
@@ -0,0 +1,71 @@
+package sneakycoders.visualreact.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.harness.Simulation;
+import sneakycoders.visualreact.level.SplitMix64;
+import sneakycoders.visualreact.level.model.LevelModel;
+
+// Cost of one update of each level: a frame of the animated levels, a cell update of the rest
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelTickBenchmark {
+    // Time between frames (60 Hz)
+    private static final long FRAME_TIME = TimeUnit.SECONDS.toNanos(1) / 60;
+    // Length of a round, a new one is started after it
+    private static final long ROUND_TIME = TimeUnit.SECONDS.toNanos(30);
+    // Level to benchmark
+    @Param({"collision", "color", "connection", "countdown", "fit", "hole", "light", "line", "pair", "passage", "singular", "variety"})
+    public String levelId;
+    // Levels on the virtual screen
+    private Simulation simulation;
+    // Current round
+    private int round;
+    private LevelModel model;
+    private long time;
+    // Time of the next update
+    private long next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        // Every iteration plays the same rounds
+        simulation = new Simulation(AppResources.load(), AppResources.WIDTH, AppResources.HEIGHT);
+        round = 0;
+        startRound();
+    }
+
+    @Setup(Level.Invocation)
+    public void nextUpdate() {
+        // Next frame or next update, starting a new round when this one is over (outside of the measured update)
+        next = model.isContinuous() ? (time + FRAME_TIME) : model.getNextUpdateTime();
+        if (next > ROUND_TIME) {
+            startRound();
+            next = model.isContinuous() ? FRAME_TIME : model.getNextUpdateTime();
+        }
+    }
+
+    private void startRound() {
+        model = simulation.createModel(levelId, SplitMix64.forRound(AppResources.SEED, round++));
+        time = 0;
+        model.start(AppResources.WIDTH, AppResources.HEIGHT, time);
+    }
+
+    @Benchmark
+    public boolean tick() {
+        // Update, which includes checking the success condition
+        time = next;
+        model.advanceTo(time);
+        return model.hasStimulusOnset();
+    }
+}
@@ -0,0 +1,41 @@
+package sneakycoders.visualreact.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import sneakycoders.visualreact.level.model.LevelParameters;
+
+// Constants of the levels with some of them replaced, to benchmark configurations the app does not ship
+final class ParameterOverrides implements LevelParameters {
+    // Constants of the app
+    private final LevelParameters parameters;
+    // Replaced constants
+    private final Map<String, Integer> integers;
+    private final Map<String, Float> fractions;
+
+    ParameterOverrides(LevelParameters parameters) {
+        this.parameters = parameters;
+        integers = new HashMap<>();
+        fractions = new HashMap<>();
+    }
+
+    ParameterOverrides setInteger(String name, int value) {
+        integers.put(name, value);
+        return this;
+    }
+
+    ParameterOverrides setFraction(String name, float value) {
+        fractions.put(name, value);
+        return this;
+    }
+
+    @Override
+    public int getInteger(String name) {
+        return integers.containsKey(name) ? integers.get(name) : parameters.getInteger(name);
+    }
+
+    @Override
+    public float getFraction(String name) {
+        return fractions.containsKey(name) ? fractions.get(name) : parameters.getFraction(name);
+    }
+}
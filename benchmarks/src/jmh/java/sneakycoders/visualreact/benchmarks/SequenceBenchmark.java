@@ -0,0 +1,58 @@
+package sneakycoders.visualreact.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.harness.XmlParameters;
+import sneakycoders.visualreact.level.LevelsSequence;
+import sneakycoders.visualreact.level.Palette;
+import sneakycoders.visualreact.level.SplitMix64;
+
+// Cost of preparing a match and the colors of a level
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SequenceBenchmark {
+    // Match configuration (as in the preferences)
+    @Param({"12"})
+    public int levelsPerMatch;
+    @Param({"3"})
+    public int roundsPerLevel;
+    // Levels and palette of the app
+    private List<String> levelIds;
+    private Palette palette;
+
+    @Setup
+    public void setUp() throws Exception {
+        XmlParameters parameters = AppResources.load();
+        levelIds = parameters.getStringArray("levels");
+        palette = new Palette(AppResources.parseColors(parameters.getStringArray("distinctivePalette")));
+    }
+
+    @Benchmark
+    public List<String> levelsSequence() {
+        // Same generator on every invocation, so that every invocation does the same work
+        return LevelsSequence.create(levelIds, levelsPerMatch, roundsPerLevel, new SplitMix64(AppResources.SEED));
+    }
+
+    @Benchmark
+    public Integer[] randomColors() {
+        // Colors of a level with two shapes
+        return palette.randomColors(2, new SplitMix64(AppResources.SEED));
+    }
+
+    @Benchmark
+    public Integer[] randomColorsPair() {
+        // Colors of the shapes of LevelPair, the level that draws the most
+        return palette.randomColors(64, new SplitMix64(AppResources.SEED));
+    }
+}
@@ -0,0 +1,44 @@
+package sneakycoders.visualreact.level;
+
+// Advances a simulation in steps of a fixed duration, independently of the frame rate
+// Frames run as many steps as fit in the time since the previous frame (catching up after stalls),
+// and the remaining fraction of a step is used to interpolate the drawing
+public class FixedTimestep {
+    // Duration of a step, in nanoseconds
+    private final long stepTime;
+    // Simulation to advance
+    private final Simulation simulation;
+    // Time up to which the simulation has been advanced (match time)
+    private long simulationTime;
+
+    public FixedTimestep(long stepTime, long startTime, Simulation simulation) {
+        this.stepTime = stepTime;
+        this.simulation = simulation;
+        simulationTime = startTime;
+    }
+
+    public float advanceTo(long time) {
+        // Run every step due before the time
+        while ((time - simulationTime) >= stepTime) {
+            simulationTime += stepTime;
+            simulation.step(simulationTime);
+        }
+
+        // Fraction of the next step already elapsed (to interpolate the drawing)
+        return Math.max(0, time - simulationTime) / (float) stepTime;
+    }
+
+    public long getStepTime() {
+        return stepTime;
+    }
+
+    public long getSimulationTime() {
+        return simulationTime;
+    }
+
+    // Step of a simulation
+    public interface Simulation {
+        // Advance the simulation by one step, up to the given time (match time)
+        void step(long time);
+    }
+}
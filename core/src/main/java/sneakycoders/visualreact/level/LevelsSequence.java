@@ -0,0 +1,54 @@
+package sneakycoders.visualreact.level;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Order in which the levels of a match are played (pure Java, independent of the preferences)
+public class LevelsSequence {
+    public static List<String> create(List<String> levelIds, int levelsPerMatch, int roundsPerLevel, Random random) {
+        // Selected levels in random order
+        List<String> selectedLevels = new ArrayList<>(levelIds);
+        Collections.shuffle(selectedLevels, random);
+
+        // Prevent repeating sequences of levels if not every level has been used yet
+        List<String> usedLevels = new ArrayList<>();
+
+        // Calculate number of rounds
+        int totalRounds = levelsPerMatch * roundsPerLevel;
+        List<String> roundsSequence = new ArrayList<>();
+
+        // Fill the levels sequence
+        while (roundsSequence.size() != totalRounds) {
+            // Reset lists if needed
+            if (selectedLevels.size() == 0) {
+                // Restore selected levels
+                selectedLevels = new ArrayList<>(usedLevels);
+
+                // Random order
+                Collections.shuffle(selectedLevels, random);
+
+                // Prevent same level being the last of one sequence and first of the next one
+                if (selectedLevels.get(0).equals(usedLevels.get(usedLevels.size() - 1))) {
+                    String last = selectedLevels.remove(0);
+                    selectedLevels.add(last);
+                }
+
+                // Empty used levels
+                usedLevels = new ArrayList<>();
+            }
+
+            // Keep track of added levels
+            String level = selectedLevels.remove(0);
+            usedLevels.add(level);
+
+            // Add new rounds of selected level
+            for (int i = 0; i < roundsPerLevel; i++) {
+                roundsSequence.add(level);
+            }
+        }
+
+        return roundsSequence;
+    }
+}
@@ -0,0 +1,53 @@
+package sneakycoders.visualreact.level;
+
+// Monotonic clock of a match, in nanoseconds since the match started
+// Freezing it stops the time for every level, so that they resume exactly where they were paused
+public class MatchClock {
+    // Monotonic time (System.nanoTime() time base) when the clock started
+    private final long origin;
+    // Total time spent frozen
+    private long frozenTime;
+    // Flag to see if the clock is frozen
+    private boolean frozen;
+    // Monotonic time when the clock was frozen
+    private long freezeStart;
+
+    public MatchClock() {
+        origin = System.nanoTime();
+        frozenTime = 0;
+        frozen = false;
+    }
+
+    public long now() {
+        // Time does not advance while frozen
+        return toMatchTime(frozen ? freezeStart : System.nanoTime());
+    }
+
+    public long toMatchTime(long monotonicTime) {
+        // Convert a monotonic timestamp (System.nanoTime(), input events, frames) to match time
+        return monotonicTime - origin - frozenTime;
+    }
+
+    public long toMonotonicTime(long matchTime) {
+        // Convert a match time to a monotonic timestamp
+        return matchTime + origin + frozenTime;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public void freeze() {
+        if (!frozen) {
+            frozen = true;
+            freezeStart = System.nanoTime();
+        }
+    }
+
+    public void thaw() {
+        if (frozen) {
+            frozen = false;
+            frozenTime += System.nanoTime() - freezeStart;
+        }
+    }
+}
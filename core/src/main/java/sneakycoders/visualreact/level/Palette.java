@@ -0,0 +1,40 @@
+package sneakycoders.visualreact.level;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Colors the levels draw from (pure Java, the colors are parsed by the caller)
+public class Palette {
+    // Colors of the palette
+    private final int[] colors;
+
+    public Palette(int[] colors) {
+        this.colors = colors;
+    }
+
+    public int randomColor(Random random) {
+        return colors[random.nextInt(colors.length)];
+    }
+
+    public Integer[] randomColors(int n, Random random) {
+        // Initialize lists
+        List<Integer> palette = new ArrayList<>();
+        List<Integer> colors = new ArrayList<>();
+        for (int color : this.colors) {
+            palette.add(color);
+        }
+
+        // Fill colors, every color of the palette is used before repeating one
+        int i = 0;
+        while (i != n) {
+            Collections.shuffle(palette, random);
+            int addN = Math.min(n - i, palette.size());
+            colors.addAll(palette.subList(0, addN));
+            i += addN;
+        }
+
+        return colors.toArray(new Integer[n]);
+    }
+}
@@ -0,0 +1,45 @@
+package sneakycoders.visualreact.level;
+
+import java.util.Random;
+
+// Fast pseudo random number generator (SplitMix64)
+// Unlike java.util.Random it is not synchronized, each level draws from its own generator
+public class SplitMix64 extends Random {
+    // Serialization version (java.util.Random is serializable)
+    private static final long serialVersionUID = 1L;
+    // Increment of the state (odd, fractional part of the golden ratio)
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    // Current state (set by the Random constructor through setSeed())
+    private long state;
+
+    public SplitMix64(long seed) {
+        super(seed);
+    }
+
+    public static SplitMix64 forRound(long seed, int round) {
+        // Generator of a round, independent of how many numbers the previous rounds drew
+        return new SplitMix64(mix(seed + ((round + 1) * GOLDEN_GAMMA)));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+}
@@ -0,0 +1,69 @@
+package sneakycoders.visualreact.level.model;
+
+// Axis aligned rectangle, with the same conventions as android.graphics.RectF
+public class Box {
+    // Edges
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public Box() {
+    }
+
+    public Box(float left, float top, float right, float bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public Box(Box box) {
+        set(box);
+    }
+
+    public static boolean intersects(Box a, Box b) {
+        return (a.left < b.right) && (b.left < a.right) && (a.top < b.bottom) && (b.top < a.bottom);
+    }
+
+    public void set(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void set(Box box) {
+        set(box.left, box.top, box.right, box.bottom);
+    }
+
+    public float width() {
+        return right - left;
+    }
+
+    public float height() {
+        return bottom - top;
+    }
+
+    public float centerX() {
+        return (left + right) / 2.0f;
+    }
+
+    public float centerY() {
+        return (top + bottom) / 2.0f;
+    }
+
+    public void offset(float dx, float dy) {
+        left += dx;
+        top += dy;
+        right += dx;
+        bottom += dy;
+    }
+
+    public void offsetTo(float x, float y) {
+        offset(x - left, y - top);
+    }
+
+    public boolean contains(Box box) {
+        // An empty box does not contain anything
+        return (left < right) && (top < bottom)
+                && (left <= box.left) && (top <= box.top) && (right >= box.right) && (bottom >= box.bottom);
+    }
+}
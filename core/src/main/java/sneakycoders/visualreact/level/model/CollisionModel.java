@@ -0,0 +1,231 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Two shapes moving towards each other behind a block, until they collide
+public class CollisionModel extends LevelModel {
+    // Shapes
+    private Box firstShape;
+    private Box secondShape;
+    private Box leftShape;
+    private Box rightShape;
+    // Shape Types
+    private ShapeType firstShapeType;
+    private ShapeType secondShapeType;
+    // Middle block
+    private Box middleBlock;
+    // Movement (starting point and distance each shape can travel in the X axis, time in nanoseconds)
+    private float leftShapeStart;
+    private float leftTotalDistance;
+    private float rightShapeStart;
+    private float rightTotalDistance;
+    private long moveTime;
+
+    public CollisionModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Margin from extremes
+        float margin = width * getFraction("level_collision_margin_extremes");
+
+        // Dimension variables (reused for both shapes)
+        float shapeWidth;
+        float shapeHeight;
+        float top;
+
+        // Choose shape combination
+        ShapeType leftShapeType = randomBoolean() ? ShapeType.Circle : ShapeType.Rectangle;
+        ShapeType rightShapeType = randomBoolean() ? ShapeType.Circle : ShapeType.Rectangle;
+
+        // Choose dimensions of the left shape
+        // Circle
+        if (leftShapeType == ShapeType.Circle) {
+            float diameter = 2.0f * height * randomFloat("level_collision_min_radius", "level_collision_max_radius");
+            shapeWidth = diameter;
+            shapeHeight = diameter;
+            top = (height - diameter) / 2.0f;
+        }
+        // Rectangle
+        else {
+            shapeWidth = height * randomFloat("level_collision_min_side", "level_collision_max_side");
+            shapeHeight = height * randomFloat("level_collision_min_side", "level_collision_max_side");
+            top = (height - shapeHeight) / 2.0f;
+        }
+
+        // Save the starting point and distance the left shape can travel (in the X axis)
+        leftShapeStart = margin;
+        leftTotalDistance = width - (2.0f * margin) - shapeWidth;
+
+        // Create the left shape
+        leftShape = new Box(margin, top, margin + shapeWidth, top + shapeHeight);
+
+        // Choose dimensions of the right shape
+        // Circle
+        if (rightShapeType == ShapeType.Circle) {
+            float diameter = 2.0f * height * randomFloat("level_collision_min_radius", "level_collision_max_radius");
+            shapeWidth = diameter;
+            shapeHeight = diameter;
+            top = (height - diameter) / 2.0f;
+        }
+        // Rectangle
+        else {
+            shapeWidth = height * randomFloat("level_collision_min_side", "level_collision_max_side");
+            shapeHeight = height * randomFloat("level_collision_min_side", "level_collision_max_side");
+            top = (height - shapeHeight) / 2.0f;
+        }
+
+        // Save the starting point and distance the left shape can travel (in the X axis)
+        rightShapeStart = width - margin - shapeWidth;
+        rightTotalDistance = width - (2.0f * margin) - shapeWidth;
+
+        // Create the right shape
+        rightShape = new Box(rightShapeStart, top, width - margin, top + shapeHeight);
+
+        // Small variations on height, while ensuring collision
+        float avgHeight = (leftShape.height() + rightShape.height()) / 2.0f;
+        float maxDiffHeight = avgHeight * (1.0f - getFraction("level_collision_min_shape_collision_height"));
+
+        // Calculate variation, with random Y axis direction
+        float variationHeight = randomInInterval(-maxDiffHeight, maxDiffHeight) / 2.0f;
+        leftShape.offset(0, variationHeight);
+        rightShape.offset(0, -variationHeight);
+
+        // Set the movement
+        moveTime = TimeUnit.MILLISECONDS.toNanos(randomInt("level_collision_min_move_time", "level_collision_max_move_time"));
+
+        // Choose which one is drawn first so that the small shape is always visible
+        boolean drawLeftFirst = (Math.min(leftShape.width(), leftShape.height()) >= Math.min(rightShape.width(), rightShape.height()));
+        firstShape = drawLeftFirst ? leftShape : rightShape;
+        secondShape = drawLeftFirst ? rightShape : leftShape;
+        firstShapeType = drawLeftFirst ? leftShapeType : rightShapeType;
+        secondShapeType = drawLeftFirst ? rightShapeType : leftShapeType;
+
+        // Create middle block
+        float blockWidth = width * randomFloat("level_collision_min_block_width", "level_collision_max_block_width");
+        middleBlock = new Box((width - blockWidth) / 2.0f, 0, (width + blockWidth) / 2.0f, height);
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return true;
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        moveShapes(time);
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return shapesCollide();
+    }
+
+    @Override
+    public boolean onPlayerTap(long eventTime) {
+        // Check collision at the moment of the tap
+        boolean result = shapesCollideAt(eventTime);
+
+        // Find when the shapes started colliding
+        if (result) {
+            markStimulusOnset(findStimulusOnset(this::shapesCollideAt, eventTime, startTime));
+            moveShapes(eventTime);
+        }
+
+        return result;
+    }
+
+    private boolean shapesCollideAt(long time) {
+        // Move the shapes to where they were at the given time
+        moveShapes(time);
+        return shapesCollide();
+    }
+
+    private boolean shapesCollide() {
+        // Two circles
+        if ((firstShapeType == ShapeType.Circle) && (secondShapeType == ShapeType.Circle)) {
+            // Calculate centers and radius
+            float distCentersX = firstShape.centerX() - secondShape.centerX();
+            float distCentersY = firstShape.centerY() - secondShape.centerY();
+            float distCentersSq = distCentersX * distCentersX + distCentersY * distCentersY;
+            float radiusLeft = firstShape.width() / 2.0f;
+            float radiusRight = secondShape.width() / 2.0f;
+
+            // Collide if sum of radius is less than the distance between centers
+            float sumRadius = radiusLeft + radiusRight;
+            return (distCentersSq <= (sumRadius * sumRadius));
+        }
+        // Two rectangles
+        else if ((firstShapeType == ShapeType.Rectangle) && (secondShapeType == ShapeType.Rectangle)) {
+            return Box.intersects(firstShape, secondShape);
+        }
+        // Circle and rectangle
+        else {
+            // Calculate center and radius
+            boolean firstIsCircle = (firstShapeType == ShapeType.Circle);
+            Box circle = firstIsCircle ? firstShape : secondShape;
+            float centerX = circle.centerX();
+            float centerY = circle.centerY();
+            float radius = circle.width() / 2.0f;
+
+            // Select rectangle
+            Box rect = firstIsCircle ? secondShape : firstShape;
+
+            // Find the closest point to the circle within the rectangle
+            // Closest to centerX in [rect.left, rect.right]
+            float closestX = ((centerX >= rect.left) && (centerX <= rect.right)) ? centerX : (centerX < rect.left ? rect.left : rect.right);
+
+            // Closest to centerY in [rect.top, rect.bottom]
+            float closestY = ((centerY >= rect.top) && (centerY <= rect.bottom)) ? centerY : (centerY < rect.top ? rect.top : rect.bottom);
+
+            // Calculate the distance between the circle's center and this closest point
+            float distX = centerX - closestX;
+            float distY = centerY - closestY;
+            float distSq = (distX * distX) + (distY * distY);
+
+            // Collide if the distance is less than the circle's radius
+            return (distSq <= (radius * radius));
+        }
+    }
+
+    private void moveShapes(long time) {
+        // Time since we started the animation, modulo two times moveTime
+        // First we go straight, then backwards
+        long roundTripTime = 2 * moveTime;
+        long elapsedTime = Math.max(0, time - startTime) % roundTripTime;
+
+        // Calculate offset in percentage (from 0% to 100%)
+        float offset = ((elapsedTime < moveTime) ? elapsedTime : (roundTripTime - elapsedTime)) / (float) moveTime;
+        float leftNewTop = leftShapeStart + offset * leftTotalDistance;
+        leftShape.offsetTo(leftNewTop, leftShape.top);
+        float rightNewTop = rightShapeStart - offset * rightTotalDistance;
+        rightShape.offsetTo(rightNewTop, rightShape.top);
+    }
+
+    public Box getFirstShape() {
+        return firstShape;
+    }
+
+    public Box getSecondShape() {
+        return secondShape;
+    }
+
+    public ShapeType getFirstShapeType() {
+        return firstShapeType;
+    }
+
+    public ShapeType getSecondShapeType() {
+        return secondShapeType;
+    }
+
+    public Box getMiddleBlock() {
+        return middleBlock;
+    }
+
+    // Shape combinations
+    public enum ShapeType {
+        Circle, Rectangle
+    }
+}
@@ -0,0 +1,58 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The screen changes its color after a random countdown
+public class ColorModel extends LevelModel {
+    // Time when the color changes
+    private long changeTime;
+    // Flag to see if the color changed
+    private boolean changed;
+
+    public ColorModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Countdown in milliseconds before switching the color
+        changeTime = startTime + TimeUnit.MILLISECONDS.toNanos(randomInt("level_color_min_delay", "level_color_max_delay"));
+        changed = false;
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        if (time >= changeTime) {
+            changed = true;
+        }
+    }
+
+    @Override
+    public long getNextUpdateTime() {
+        return changed ? NO_UPDATE : changeTime;
+    }
+
+    @Override
+    public void onFramePresented(long time) {
+        // The stimulus starts once the frame with the new color is presented, not when it is requested
+        if (changed) {
+            markStimulusOnset(time);
+        }
+    }
+
+    @Override
+    public boolean isStimulusOnsetPresented() {
+        return true;
+    }
+
+    @Override
+    public boolean isSuccess() {
+        // Success only if the new color was already on the screen
+        return hasStimulusOnset();
+    }
+
+    public boolean isChanged() {
+        return changed;
+    }
+}
@@ -0,0 +1,544 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Grid of path cells that randomly change, until a path connects both extremes (of any pair, with several pairs)
+// Cells are identified by their index in the grid (x * cellsY + y)
+public class ConnectionModel extends PeriodicLevelModel {
+    // Cell where a path stops when it leaves the grid
+    private static final int NO_CELL = -1;
+    // Path type of the cells not created yet, and of the random cells (as their real path type)
+    private static final byte NO_PATH_TYPE = -1;
+    // Path types (by ordinal)
+    private static final PathType[] PATH_TYPES = PathType.values();
+    // Arms of each path type (by ordinal)
+    private static final int[] ARMS = {
+            PathComponents.LEFT | PathComponents.RIGHT, PathComponents.TOP | PathComponents.BOTTOM,
+            PathComponents.BOTTOM | PathComponents.LEFT, PathComponents.BOTTOM | PathComponents.RIGHT,
+            PathComponents.TOP | PathComponents.LEFT, PathComponents.TOP | PathComponents.RIGHT};
+    // Cells in the X axis
+    private int cellsX;
+    // Cells in the Y axis
+    private int cellsY;
+    // Pairs of extremes, and their coordinates (coordinate in the Y axis)
+    private int numPairs;
+    private int[] leftExtremesY;
+    private int[] rightExtremesY;
+    // Current and real path types of the cells (by ordinal)
+    private byte[] pathTypes;
+    private byte[] realPathTypes;
+    // Cells that connect both extremes, and have not been updated yet
+    private int[] pathCells;
+    private int numPathCells;
+    // Random cells
+    private int[] randomCells;
+    private int numRandomCells;
+    // Cells whose path type changed since they were last cleared, and whether each cell is among them
+    private int[] changedCells;
+    private int numChangedCells;
+    private boolean[] changed;
+    // Probability to update a random cell instead of a path cell
+    private float pRandomCell;
+    // Path from the left extreme, the cells in it and the cell where it stops (NO_CELL if it leaves the grid)
+    private int[] leftPath;
+    private int leftPathLength;
+    private boolean[] inLeftPath;
+    private int leftPathStop;
+    // Components of the paths of the grid, to connect several pairs of extremes (null with a single pair)
+    private PathComponents components;
+    // Flag to see if the extremes of any pair are connected
+    private boolean connected;
+    // Cell where the last followed path stops
+    private int pathStop;
+
+    public ConnectionModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Several pairs of extremes on a larger grid
+        boolean multi = randomDouble() < getFraction("level_connection_multi_probability");
+
+        // Number of cells in each axis
+        cellsX = getInteger(multi ? "level_connection_multi_cells_x" : "level_connection_cells_x");
+        cellsY = getInteger(multi ? "level_connection_multi_cells_y" : "level_connection_cells_y");
+
+        // Create the cells
+        int numCells = cellsX * cellsY;
+        pathTypes = new byte[numCells];
+        realPathTypes = new byte[numCells];
+        Arrays.fill(pathTypes, NO_PATH_TYPE);
+        pathCells = new int[numCells];
+        numPathCells = 0;
+        randomCells = new int[numCells];
+        numRandomCells = 0;
+        changedCells = new int[numCells];
+        numChangedCells = 0;
+        changed = new boolean[numCells];
+
+        // Create the path of each pair, each one in its own band of rows
+        numPairs = multi ? getInteger("level_connection_multi_pairs") : 1;
+        leftExtremesY = new int[numPairs];
+        rightExtremesY = new int[numPairs];
+        for (int pair = 0; pair < numPairs; pair++) {
+            createPath(pair, (pair * cellsY) / numPairs, (((pair + 1) * cellsY) / numPairs) - 1);
+        }
+
+        // Create the rest of the cells
+        for (int cell = 0; cell < numCells; cell++) {
+            // Check that it is not used in the path
+            if (pathTypes[cell] == NO_PATH_TYPE) {
+                // Create random path cell
+                createCell(cell, NO_PATH_TYPE);
+                randomCells[numRandomCells++] = cell;
+            }
+        }
+
+        // Path from the left extreme with the initial cells
+        if (!multi) {
+            leftPath = new int[numCells];
+            leftPathLength = 0;
+            inLeftPath = new boolean[numCells];
+            updateLeftPath();
+        }
+        // Components with the initial cells
+        else {
+            components = new PathComponents(cellsX, cellsY);
+            for (int cell = 0; cell < numCells; cell++) {
+                components.setArms(cell, ARMS[pathTypes[cell]]);
+            }
+            components.labelAll();
+            updateConnectedPairs();
+        }
+
+        // Start updating the cells
+        pRandomCell = multi ? randomFloat("level_connection_multi_min_update_random", "level_connection_multi_max_update_random")
+                : randomFloat("level_connection_min_update_random", "level_connection_max_update_random");
+        startUpdates(multi ? randomInt("level_connection_multi_min_delay", "level_connection_multi_max_delay")
+                : randomInt("level_connection_min_delay", "level_connection_max_delay"));
+    }
+
+    private void createPath(int pair, int minY, int maxY) {
+        // Y coordinate of the extremes
+        leftExtremesY[pair] = randomInInterval(minY, maxY);
+        rightExtremesY[pair] = randomInInterval(minY, maxY);
+
+        // Meeting point (in the X axis) for the left to right and right to left paths
+        int xConnection = randomInInterval(0, cellsX - 1);
+
+        // Create path
+        // Left to right
+        int x = -1;
+        int y = leftExtremesY[pair];
+        Direction direction = Direction.Right;
+        while (x < xConnection) {
+            PathType pathType;
+            double p = randomDouble();
+
+            // To the right
+            if (direction == Direction.Right) {
+                // Switch to the top
+                if ((p < 0.33) && (y > (minY + 1))) {
+                    pathType = PathType.TopLeft;
+                    direction = Direction.Top;
+                }
+                // Switch to the bottom
+                else if ((p < 0.66) && (y < (maxY - 1))) {
+                    pathType = PathType.BottomLeft;
+                    direction = Direction.Bottom;
+                }
+                // Continue to the right
+                else {
+                    pathType = PathType.Horizontal;
+                }
+
+                // Move to the right
+                x++;
+            }
+            // To the top
+            else if (direction == Direction.Top) {
+                // Continue to the top
+                if ((p < 0.33) && (y > (minY + 1))) {
+                    pathType = PathType.Vertical;
+                }
+                // Switch to the right
+                else {
+                    pathType = PathType.BottomRight;
+                    direction = Direction.Right;
+                }
+
+                // Move to the top
+                y--;
+            }
+            // To the bottom
+            else {
+                // Continue to the bottom
+                if ((p < 0.33) && (y < (maxY - 1))) {
+                    pathType = PathType.Vertical;
+                }
+                // Switch to the right
+                else {
+                    pathType = PathType.TopRight;
+                    direction = Direction.Right;
+                }
+
+                // Move to the bottom
+                y++;
+            }
+
+            // Create path cell
+            addPathCell(x, y, pathType);
+        }
+
+        // Save the endpoint in the Y axis for the left to right path
+        int endFirstPath = y;
+
+        // Right to left
+        x = cellsX;
+        y = rightExtremesY[pair];
+        direction = Direction.Left;
+        while (x > xConnection) {
+            PathType pathType;
+            double p = randomDouble();
+
+            // To the left
+            if (direction == Direction.Left) {
+                // Switch to the top
+                if ((p < 0.33) && (y > (minY + 1))) {
+                    pathType = PathType.TopRight;
+                    direction = Direction.Top;
+                }
+                // Switch to the bottom
+                else if ((p < 0.66) && (y < (maxY - 1))) {
+                    pathType = PathType.BottomRight;
+                    direction = Direction.Bottom;
+                }
+                // Continue to the right
+                else {
+                    pathType = PathType.Horizontal;
+                }
+
+                // Move to the left
+                x--;
+            }
+            // To the top
+            else if (direction == Direction.Top) {
+                // Continue to the top
+                if ((p < 0.33) && (y > (minY + 1))) {
+                    pathType = PathType.Vertical;
+                }
+                // Switch to the left
+                else {
+                    pathType = PathType.BottomLeft;
+                    direction = Direction.Left;
+                }
+
+                // Move to the top
+                y--;
+            }
+            // To the bottom
+            else {
+                // Continue to the bottom
+                if ((p < 0.33) && (y < (maxY - 1))) {
+                    pathType = PathType.Vertical;
+                }
+                // Switch to the left
+                else {
+                    pathType = PathType.TopLeft;
+                    direction = Direction.Left;
+                }
+
+                // Move to the bottom
+                y++;
+            }
+
+            // Create the path cell
+            addPathCell(x, y, pathType);
+        }
+
+        // Connection point
+        // Aligned
+        if (endFirstPath == y) {
+            addPathCell(xConnection, y, PathType.Horizontal);
+        }
+        // Not aligned
+        else {
+            // Left is up
+            if (endFirstPath < y) {
+                addPathCell(xConnection, endFirstPath, PathType.BottomLeft);
+                addPathCell(xConnection, y, PathType.TopRight);
+                y--;
+            }
+            // Right is up
+            else {
+                addPathCell(xConnection, endFirstPath, PathType.TopLeft);
+                addPathCell(xConnection, y, PathType.BottomRight);
+                y++;
+            }
+
+            // Vertical path between both paths
+            int movement = (y < endFirstPath) ? 1 : -1;
+            while (y != endFirstPath) {
+                addPathCell(xConnection, y, PathType.Vertical);
+                y += movement;
+            }
+        }
+    }
+
+    private void addPathCell(int x, int y, PathType pathType) {
+        int cell = x * cellsY + y;
+        createCell(cell, (byte) pathType.ordinal());
+        pathCells[numPathCells++] = cell;
+    }
+
+    private void createCell(int cell, byte realPathType) {
+        // Every cell is initially random
+        pathTypes[cell] = randomPathType();
+        realPathTypes[cell] = realPathType;
+    }
+
+    private byte randomPathType() {
+        return (byte) randomInInterval(0, PATH_TYPES.length - 1);
+    }
+
+    @Override
+    protected void updateCells(long time) {
+        // Cell to be updated
+        int cell;
+
+        // Select a random cell
+        if ((randomDouble() < pRandomCell) || (numPathCells == 0)) {
+            cell = randomCells[randomInInterval(0, numRandomCells - 1)];
+        }
+        // Select and remove one of the remaining path cells (keeping the order of the rest)
+        else {
+            int index = randomInInterval(0, numPathCells - 1);
+            cell = pathCells[index];
+            System.arraycopy(pathCells, index + 1, pathCells, index, numPathCells - index - 1);
+            numPathCells--;
+        }
+
+        // Switch to the real path type (if exists) or generate a random one
+        byte previousPathType = pathTypes[cell];
+        pathTypes[cell] = (realPathTypes[cell] == NO_PATH_TYPE) ? randomPathType() : realPathTypes[cell];
+
+        // Nothing to update if the cell keeps its path type
+        if (pathTypes[cell] == previousPathType) {
+            return;
+        }
+
+        // Report the cell until the changes are cleared
+        if (!changed[cell]) {
+            changed[cell] = true;
+            changedCells[numChangedCells++] = cell;
+        }
+
+        // Follow the path again only if the cell is in it, or it is the cell where the path stops
+        if (components == null) {
+            if (inLeftPath[cell] || (leftPathStop == cell)) {
+                updateLeftPath();
+            }
+        }
+        // Update the components of the cell and its neighbors
+        else {
+            components.update(cell, ARMS[pathTypes[cell]]);
+            updateConnectedPairs();
+        }
+    }
+
+    private void updateLeftPath() {
+        // Unmark the previous path
+        for (int i = 0; i < leftPathLength; i++) {
+            inLeftPath[leftPath[i]] = false;
+        }
+
+        // Follow the path from the left extreme and mark it
+        leftPathLength = followPath(true, 0, leftPath);
+        leftPathStop = pathStop;
+        for (int i = 0; i < leftPathLength; i++) {
+            inLeftPath[leftPath[i]] = true;
+        }
+
+        // The onset is the time of the update that connects the extremes (as the path cells or by chance)
+        connected = (leftPathLength != 0) && (leftPath[leftPathLength - 1] == ((cellsX - 1) * cellsY + rightExtremesY[0]));
+    }
+
+    private void updateConnectedPairs() {
+        // The onset is the time of the update that connects the extremes of any pair
+        connected = false;
+        for (int pair = 0; (pair < numPairs) && !connected; pair++) {
+            connected = isConnected(pair);
+        }
+    }
+
+    public boolean isConnected(int pair) {
+        // With a single pair, the path from the left extreme
+        if (components == null) {
+            return connected;
+        }
+
+        // The extremes open to the outside, and in the same component
+        return components.connects(leftExtremesY[pair], PathComponents.LEFT,
+                (cellsX - 1) * cellsY + rightExtremesY[pair], PathComponents.RIGHT);
+    }
+
+    @Override
+    public boolean isSuccess() {
+        // Success if both extremes are connected
+        return connected;
+    }
+
+    public int followPath(boolean leftToRight, int pair, int[] path) {
+        // Path from extreme to extreme (cells in order, the array must fit every cell of the grid)
+        int length = 0;
+
+        // Starting point
+        int x = leftToRight ? 0 : (cellsX - 1);
+        int y = leftToRight ? leftExtremesY[pair] : rightExtremesY[pair];
+
+        // Current direction
+        Direction direction = leftToRight ? Direction.Right : Direction.Left;
+
+        // Follow the path as long as possible
+        boolean endOfPath = false;
+        while (!endOfPath) {
+            int xPrev = x;
+            int yPrev = y;
+            PathType pathType = PATH_TYPES[pathTypes[x * cellsY + y]];
+            // To the right cell
+            if (direction == Direction.Right) {
+                if (pathType == PathType.Horizontal) {
+                    x++;
+                } else if (pathType == PathType.TopLeft) {
+                    direction = Direction.Top;
+                    y--;
+                } else if (pathType == PathType.BottomLeft) {
+                    direction = Direction.Bottom;
+                    y++;
+                } else {
+                    endOfPath = true;
+                }
+            }
+            // To the left cell
+            else if (direction == Direction.Left) {
+                if (pathType == PathType.Horizontal) {
+                    x--;
+                } else if (pathType == PathType.TopRight) {
+                    direction = Direction.Top;
+                    y--;
+                } else if (pathType == PathType.BottomRight) {
+                    direction = Direction.Bottom;
+                    y++;
+                } else {
+                    endOfPath = true;
+                }
+            }
+            // To the top cell
+            else if (direction == Direction.Top) {
+                if (pathType == PathType.Vertical) {
+                    y--;
+                } else if (pathType == PathType.BottomLeft) {
+                    direction = Direction.Left;
+                    x--;
+                } else if (pathType == PathType.BottomRight) {
+                    direction = Direction.Right;
+                    x++;
+                } else {
+                    endOfPath = true;
+                }
+            }
+            // To the bottom cell
+            else {
+                if (pathType == PathType.Vertical) {
+                    y++;
+                } else if (pathType == PathType.TopLeft) {
+                    direction = Direction.Left;
+                    x--;
+                } else if (pathType == PathType.TopRight) {
+                    direction = Direction.Right;
+                    x++;
+                } else {
+                    endOfPath = true;
+                }
+            }
+
+            // Add new position if it is valid
+            if (!endOfPath) {
+                path[length++] = xPrev * cellsY + yPrev;
+            }
+
+            // Check boundaries
+            if ((x < 0) || (x >= cellsX) || (y < 0) || (y >= cellsY)) {
+                pathStop = NO_CELL;
+                return length;
+            }
+        }
+
+        // Cell where the path stops
+        pathStop = x * cellsY + y;
+        return length;
+    }
+
+    public int getCellsX() {
+        return cellsX;
+    }
+
+    public int getCellsY() {
+        return cellsY;
+    }
+
+    public int getNumPairs() {
+        return numPairs;
+    }
+
+    public int getLeftExtremeY(int pair) {
+        return leftExtremesY[pair];
+    }
+
+    public int getRightExtremeY(int pair) {
+        return rightExtremesY[pair];
+    }
+
+    public int getNumChangedCells() {
+        return numChangedCells;
+    }
+
+    public int getChangedCell(int i) {
+        return changedCells[i];
+    }
+
+    public void clearChangedCells() {
+        for (int i = 0; i < numChangedCells; i++) {
+            changed[changedCells[i]] = false;
+        }
+        numChangedCells = 0;
+    }
+
+    public int getNumCells() {
+        return pathTypes.length;
+    }
+
+    public int getCellX(int cell) {
+        return cell / cellsY;
+    }
+
+    public int getCellY(int cell) {
+        return cell % cellsY;
+    }
+
+    public PathType getPathType(int x, int y) {
+        return PATH_TYPES[pathTypes[x * cellsY + y]];
+    }
+
+    // Possible directions
+    private enum Direction {
+        Left, Right, Top, Bottom
+    }
+
+    // Types of cell paths
+    public enum PathType {
+        Horizontal, Vertical, BottomLeft, BottomRight, TopLeft, TopRight
+    }
+}
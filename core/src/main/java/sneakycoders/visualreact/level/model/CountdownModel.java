@@ -0,0 +1,104 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A countdown that hides itself before reaching zero
+public class CountdownModel extends LevelModel {
+    // Value from which the countdown is hidden
+    private int hide;
+    // Counter (value of the next tick)
+    private int counter;
+    // Value on the screen
+    private int shownCounter;
+    private boolean counterVisible;
+    // Countdown timing (in nanoseconds)
+    private long stepTime;
+    private long totalTime;
+    // Time when the next tick is due, and when the last one was due
+    private long nextTickTime;
+    private long lastTickTime;
+
+    public CountdownModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Get parameters
+        int start = randomInt("level_countdown_min_start", "level_countdown_max_start");
+        int step = randomInt("level_countdown_min_delay", "level_countdown_max_delay");
+        int minHide = getInteger("level_countdown_min_hide");
+        int maxHideOffset = getInteger("level_countdown_max_hide_offset");
+        hide = randomInInterval(minHide, start - maxHideOffset);
+
+        // Set starting values
+        counter = start;
+        shownCounter = start;
+        counterVisible = true;
+
+        // Ticks are due at absolute deadlines, the first one when the countdown starts
+        stepTime = TimeUnit.MILLISECONDS.toNanos(step);
+        totalTime = start * stepTime;
+        nextTickTime = startTime;
+        lastTickTime = startTime;
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        while (nextTickTime <= time) {
+            lastTickTime = nextTickTime;
+
+            // Countdown finished
+            if (counter == 0) {
+                markStimulusOnset(lastTickTime);
+                nextTickTime = NO_UPDATE;
+                return;
+            }
+
+            // Visible countdown, hidden once it goes below the hide value
+            shownCounter = counter;
+            counterVisible = (counter >= hide);
+            counter--;
+
+            // Tick again at the next deadline
+            nextTickTime += stepTime;
+        }
+    }
+
+    @Override
+    public long getNextUpdateTime() {
+        return nextTickTime;
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return (counter == 0) && hasStimulusOnset();
+    }
+
+    @Override
+    public boolean onPlayerTap(long eventTime) {
+        // Success only if the countdown had finished when the player touched the screen (even if the last tick is late)
+        boolean result = (eventTime >= getEndTime());
+        if (result) {
+            markStimulusOnset(getEndTime());
+        }
+        return result;
+    }
+
+    public long getEndTime() {
+        return startTime + totalTime;
+    }
+
+    public int getShownCounter() {
+        return shownCounter;
+    }
+
+    public boolean isCounterVisible() {
+        return counterVisible;
+    }
+
+    public long getLastTickTime() {
+        return lastTickTime;
+    }
+}
@@ -0,0 +1,292 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Two outlined shapes that change their size, until one of them fits into the other one
+public class FitModel extends LevelModel {
+    // Shapes
+    private Box leftShape;
+    private Box rightShape;
+    // Shape Types
+    private ShapeType leftShapeType;
+    private ShapeType rightShapeType;
+    // Half of the screen size
+    private float halfWidth;
+    private float halfHeight;
+    // Original and resized dimensions
+    private float originalLeftShapeWidth;
+    private float originalLeftShapeHeight;
+    private float resizedLeftShapeWidth;
+    private float resizedLeftShapeHeight;
+    private float originalRightShapeWidth;
+    private float originalRightShapeHeight;
+    private float resizedRightShapeWidth;
+    private float resizedRightShapeHeight;
+    // Resize timing (in nanoseconds)
+    private long resizeTime;
+    // Time up to which the shapes have been resized
+    private long currentTime;
+    // Stroke width
+    private float strokeWidth;
+
+    public FitModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Choose shape combination
+        leftShapeType = randomBoolean() ? ShapeType.Circle : ShapeType.Rectangle;
+        rightShapeType = randomBoolean() ? ShapeType.Circle : ShapeType.Rectangle;
+
+        // Do not allow two circles, make it two rectangles
+        if ((leftShapeType == ShapeType.Circle) && (rightShapeType == ShapeType.Circle)) {
+            leftShapeType = ShapeType.Rectangle;
+            rightShapeType = ShapeType.Rectangle;
+        }
+
+        // Screen size
+        halfWidth = width / 2.0f;
+        halfHeight = height / 2.0f;
+
+        // Set stroke width
+        strokeWidth = height * getFraction("level_fit_stroke_width");
+
+        // Choose dimensions
+        float margin = getFraction("level_fit_margin");
+        if (((leftShapeType == ShapeType.Circle) && (rightShapeType == ShapeType.Rectangle))
+                || ((leftShapeType == ShapeType.Rectangle) && (rightShapeType == ShapeType.Circle))) {
+            // Random original rectangle
+            float originalRectangleWidth = height * randomFloat("level_fit_min_side", "level_fit_max_side");
+            float originalRectangleHeight = height * randomFloat("level_fit_min_side", "level_fit_max_side");
+
+            // Circle radius between rectangle sides
+            float originalDiameter = randomInInterval(originalRectangleWidth, originalRectangleHeight);
+
+            // Random resized square
+            float resizedSquareSide = height * randomFloat("level_fit_min_side", "level_fit_max_side");
+
+            // Fit circle inside square
+            float resizedDiameter;
+            if (randomBoolean()) {
+                resizedDiameter = resizedSquareSide - height * margin;
+            }
+            // Fit square inside circle
+            else {
+                resizedDiameter = (float) ((Math.sqrt(2.0) * resizedSquareSide) + height * margin);
+            }
+
+            // Assign dimensions
+            if (leftShapeType == ShapeType.Circle) {
+                originalLeftShapeWidth = originalDiameter;
+                originalLeftShapeHeight = originalDiameter;
+                resizedLeftShapeWidth = resizedDiameter;
+                resizedLeftShapeHeight = resizedDiameter;
+                originalRightShapeWidth = originalRectangleWidth;
+                originalRightShapeHeight = originalRectangleHeight;
+                resizedRightShapeWidth = resizedSquareSide;
+                resizedRightShapeHeight = resizedSquareSide;
+            } else {
+                originalLeftShapeWidth = originalRectangleWidth;
+                originalLeftShapeHeight = originalRectangleHeight;
+                resizedLeftShapeWidth = resizedSquareSide;
+                resizedLeftShapeHeight = resizedSquareSide;
+                originalRightShapeWidth = originalDiameter;
+                originalRightShapeHeight = originalDiameter;
+                resizedRightShapeWidth = resizedDiameter;
+                resizedRightShapeHeight = resizedDiameter;
+            }
+        } else {
+            // Random original rectangles
+            float originalOuterRectangleWidth = height * randomFloat("level_fit_min_side", "level_fit_max_side");
+            float originalOuterRectangleHeight = height * randomFloat("level_fit_min_side", "level_fit_max_side");
+            float originalInnerRectangleWidth;
+            float originalInnerRectangleHeight;
+            float minDiff = height * getFraction("level_fit_min_diff");
+            if (randomBoolean()) {
+                originalInnerRectangleWidth = randomInInterval(originalOuterRectangleWidth + (minDiff / 2.0f), height * getFraction("level_fit_max_side"));
+                originalInnerRectangleHeight = randomInInterval(minDiff, originalOuterRectangleHeight - (minDiff / 2.0f));
+            } else {
+                originalInnerRectangleWidth = randomInInterval(minDiff, originalOuterRectangleWidth - minDiff);
+                originalInnerRectangleHeight = randomInInterval(originalOuterRectangleHeight + (minDiff / 2.0f), height * getFraction("level_fit_max_side"));
+
+            }
+
+            // Random outer resized square
+            float resizedOuterSquareSide = height * randomFloat("level_fit_min_side", "level_fit_max_side");
+
+            // Inner resized square
+            float resizedInnerSquareSide = resizedOuterSquareSide - height * margin;
+
+            // Assign dimensions
+            if (randomBoolean()) {
+                originalLeftShapeWidth = originalOuterRectangleWidth;
+                originalLeftShapeHeight = originalOuterRectangleHeight;
+                originalRightShapeWidth = originalInnerRectangleWidth;
+                originalRightShapeHeight = originalInnerRectangleHeight;
+            } else {
+                originalLeftShapeWidth = originalInnerRectangleWidth;
+                originalLeftShapeHeight = originalInnerRectangleHeight;
+                originalRightShapeWidth = originalOuterRectangleWidth;
+                originalRightShapeHeight = originalOuterRectangleHeight;
+            }
+            if (randomBoolean()) {
+                resizedLeftShapeWidth = resizedOuterSquareSide;
+                resizedLeftShapeHeight = resizedOuterSquareSide;
+                resizedRightShapeWidth = resizedInnerSquareSide;
+                resizedRightShapeHeight = resizedInnerSquareSide;
+            } else {
+                resizedLeftShapeWidth = resizedInnerSquareSide;
+                resizedLeftShapeHeight = resizedInnerSquareSide;
+                resizedRightShapeWidth = resizedOuterSquareSide;
+                resizedRightShapeHeight = resizedOuterSquareSide;
+            }
+        }
+
+        // Create the left and right shapes
+        leftShape = new Box(
+                (halfWidth - originalLeftShapeWidth) / 2.0f,
+                halfHeight - (originalLeftShapeHeight / 2.0f),
+                (halfWidth + originalLeftShapeWidth) / 2.0f,
+                halfHeight + (originalLeftShapeHeight / 2.0f));
+        rightShape = new Box(
+                ((3.0f * halfWidth) - originalRightShapeWidth) / 2.0f,
+                halfHeight - (originalRightShapeHeight / 2.0f),
+                ((3.0f * halfWidth) + originalRightShapeWidth) / 2.0f,
+                halfHeight + (originalRightShapeHeight / 2.0f));
+
+        // Set the movement
+        resizeTime = TimeUnit.MILLISECONDS.toNanos(randomInt("level_fit_min_resize_time", "level_fit_max_resize_time"));
+        currentTime = startTime;
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return true;
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        currentTime = time;
+        resizeShapes(time);
+    }
+
+    @Override
+    public boolean isSuccess() {
+        // Check with the shapes regrouped in the middle, then put them back
+        boolean result = shapesFitAt(currentTime);
+        resizeShapes(currentTime);
+        return result;
+    }
+
+    @Override
+    public boolean onPlayerTap(long eventTime) {
+        // Check if one shape fits into the other one at the moment of the tap
+        boolean result = shapesFitAt(eventTime);
+
+        // Find when one shape started fitting into the other one
+        if (result) {
+            markStimulusOnset(findStimulusOnset(this::shapesFitAt, eventTime, startTime));
+            shapesFitAt(eventTime);
+        }
+
+        return result;
+    }
+
+    private boolean shapesFitAt(long time) {
+        // Resize the shapes to their size at the given time
+        resizeShapes(time);
+
+        // Regroup shapes in the middle
+        leftShape.offsetTo(halfWidth - (leftShape.width() / 2.0f), halfHeight - (leftShape.height() / 2.0f));
+        rightShape.offsetTo(halfWidth - (rightShape.width() / 2.0f), halfHeight - (rightShape.height() / 2.0f));
+
+        return shapesFit();
+    }
+
+    private boolean shapesFit() {
+        // Take into account the stroke width (half of it is inside, half outside)
+        float diff = strokeWidth / 2.0f;
+
+        // Adjust sizes
+        Box leftShapeIn = new Box(leftShape.left - diff, leftShape.top - diff, leftShape.right + diff, leftShape.bottom + diff);
+        Box leftShapeOut = new Box(leftShape.left + diff, leftShape.top + diff, leftShape.right - diff, leftShape.bottom - diff);
+        Box rightShapeIn = new Box(rightShape.left - diff, rightShape.top - diff, rightShape.right + diff, rightShape.bottom + diff);
+        Box rightShapeOut = new Box(rightShape.left + diff, rightShape.top + diff, rightShape.right - diff, rightShape.bottom - diff);
+
+        // Check if one shape fits into the other one
+        // Two rectangles
+        if ((leftShapeType == ShapeType.Rectangle) && (rightShapeType == ShapeType.Rectangle)) {
+            return (leftShapeOut.contains(rightShapeIn) || rightShapeOut.contains(leftShapeIn));
+        }
+        // Circle and rectangle
+        else {
+            // Assign circle/rectangle to their corresponding shape
+            boolean leftShapeIsCircle = (leftShapeType == ShapeType.Circle);
+            Box circleIn = leftShapeIsCircle ? leftShapeIn : rightShapeIn;
+            Box circleOut = leftShapeIsCircle ? leftShapeOut : rightShapeOut;
+            Box rectangleIn = leftShapeIsCircle ? rightShapeIn : leftShapeIn;
+            Box rectangleOut = leftShapeIsCircle ? rightShapeOut : leftShapeOut;
+
+            // Calculate distance between center of circle and the farthest corner of the rectangle
+            float circleOutRadius = circleOut.width() / 2;
+            float distX = Math.max(circleOut.centerX() - rectangleIn.left, rectangleIn.right - circleOut.centerX());
+            float distY = Math.max(circleOut.centerY() - rectangleIn.top, rectangleIn.bottom - circleOut.centerY());
+
+            // Check collision
+            boolean rectangleInCircle = ((circleOutRadius * circleOutRadius) >= ((distX * distX) + (distY * distY)));
+            return (rectangleInCircle || rectangleOut.contains(circleIn));
+        }
+    }
+
+    private void resizeShapes(long time) {
+        // Time since we started the animation, modulo two times resizeTime
+        long totalResizeTime = 2 * resizeTime;
+        long elapsedTime = Math.max(0, time - startTime) % totalResizeTime;
+
+        // Calculate offset in percentage (from 0% to 100%)
+        float offset = ((elapsedTime < resizeTime) ? elapsedTime : (totalResizeTime - elapsedTime)) / (float) resizeTime;
+        float leftShapeWidth = (1.0f - offset) * originalLeftShapeWidth + offset * resizedLeftShapeWidth;
+        float leftShapeHeight = (1.0f - offset) * originalLeftShapeHeight + offset * resizedLeftShapeHeight;
+        float rightShapeWidth = (1.0f - offset) * originalRightShapeWidth + offset * resizedRightShapeWidth;
+        float rightShapeHeight = (1.0f - offset) * originalRightShapeHeight + offset * resizedRightShapeHeight;
+
+        // Resize and center shapes
+        leftShape.set(
+                (halfWidth - leftShapeWidth) / 2.0f,
+                halfHeight - (leftShapeHeight / 2.0f),
+                (halfWidth + leftShapeWidth) / 2.0f,
+                halfHeight + (leftShapeHeight / 2.0f));
+        rightShape.set(
+                ((3.0f * halfWidth) - rightShapeWidth) / 2.0f,
+                halfHeight - (rightShapeHeight / 2.0f),
+                ((3.0f * halfWidth) + rightShapeWidth) / 2.0f,
+                halfHeight + (rightShapeHeight / 2.0f));
+    }
+
+    public Box getLeftShape() {
+        return leftShape;
+    }
+
+    public Box getRightShape() {
+        return rightShape;
+    }
+
+    public ShapeType getLeftShapeType() {
+        return leftShapeType;
+    }
+
+    public ShapeType getRightShapeType() {
+        return rightShapeType;
+    }
+
+    public float getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    // Shape combinations
+    public enum ShapeType {
+        Circle, Rectangle
+    }
+}
@@ -0,0 +1,142 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Two circles that change their size behind a block with a hole, until they fit through the hole
+public class HoleModel extends LevelModel {
+    // Shapes
+    private Box leftCircle;
+    private Box rightCircle;
+    private Box hole;
+    private Box middleBlock;
+    // Half of the screen size
+    private float halfWidth;
+    private float halfHeight;
+    // Circles centers and diameters
+    private float centerLeftCircleX;
+    private float centerRightCircleX;
+    private float originalCircleDiameter;
+    private float resizedCircleDiameter;
+    // Resize timing (in nanoseconds)
+    private long resizeTime;
+
+    public HoleModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Screen size
+        halfWidth = width / 2.0f;
+        halfHeight = height / 2.0f;
+
+        // Set hole dimensions
+        float holeRadius = height * randomFloat("level_hole_min_hole_radius", "level_hole_max_hole_radius");
+        float middleBlockHalfWidth = holeRadius * getFraction("level_hole_block_width");
+
+        // Create hole and middle block
+        hole = new Box(halfWidth - holeRadius, halfHeight - holeRadius, halfWidth + holeRadius, halfHeight + holeRadius);
+        middleBlock = new Box(halfWidth - middleBlockHalfWidth, 0, halfWidth + middleBlockHalfWidth, height);
+
+        // Set circles diameters
+        originalCircleDiameter = 2.0f * height * randomFloat("level_hole_min_circle_radius", "level_hole_max_circle_radius");
+        resizedCircleDiameter = 2.0f * holeRadius * (1.0f - getFraction("level_hole_margin"));
+
+        // Create circles
+        centerLeftCircleX = (halfWidth - middleBlockHalfWidth) / 2.0f;
+        centerRightCircleX = width - (halfWidth - middleBlockHalfWidth) / 2.0f;
+        leftCircle = new Box(
+                centerLeftCircleX - (originalCircleDiameter / 2.0f),
+                halfHeight - (originalCircleDiameter / 2.0f),
+                centerLeftCircleX + (originalCircleDiameter / 2.0f),
+                halfHeight + (originalCircleDiameter / 2.0f));
+        rightCircle = new Box(
+                centerRightCircleX - (originalCircleDiameter / 2.0f),
+                halfHeight - (originalCircleDiameter / 2.0f),
+                centerRightCircleX + (originalCircleDiameter / 2.0f),
+                halfHeight + (originalCircleDiameter / 2.0f));
+
+        // Set the movement
+        resizeTime = TimeUnit.MILLISECONDS.toNanos(randomInt("level_hole_min_resize_time", "level_hole_max_resize_time"));
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return true;
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        resizeCircles(time);
+    }
+
+    @Override
+    public boolean isSuccess() {
+        // Success if the circle is smaller than the hole
+        return (hole.width() >= leftCircle.width());
+    }
+
+    @Override
+    public boolean onPlayerTap(long eventTime) {
+        // Check if the circle is smaller than the hole at the moment of the tap
+        boolean result = circlesFitAt(eventTime);
+
+        // Find when the circles became smaller than the hole
+        if (result) {
+            markStimulusOnset(findStimulusOnset(this::circlesFitAt, eventTime, startTime));
+            resizeCircles(eventTime);
+        }
+
+        // Regroup shapes in the middle
+        leftCircle.offsetTo(halfWidth - (leftCircle.width() / 2.0f), halfHeight - (leftCircle.height() / 2.0f));
+        rightCircle.offsetTo(halfWidth - (rightCircle.width() / 2.0f), halfHeight - (rightCircle.height() / 2.0f));
+
+        return result;
+    }
+
+    private boolean circlesFitAt(long time) {
+        // Resize the circles to their size at the given time
+        resizeCircles(time);
+        return isSuccess();
+    }
+
+    private void resizeCircles(long time) {
+        // Time since we started the animation, modulo two times resizeTime
+        // First we scale down then up
+        long totalResizeTime = 2 * resizeTime;
+        long elapsedTime = Math.max(0, time - startTime) % totalResizeTime;
+
+        // Calculate offset in percentage (from 0% to 100%)
+        float offset = ((elapsedTime < resizeTime) ? elapsedTime : (totalResizeTime - elapsedTime)) / (float) resizeTime;
+        float circleDiameter = (1.0f - offset) * originalCircleDiameter + offset * resizedCircleDiameter;
+
+        // Resize and center shapes
+        leftCircle.set(
+                centerLeftCircleX - (circleDiameter / 2.0f),
+                halfHeight - (circleDiameter / 2.0f),
+                centerLeftCircleX + (circleDiameter / 2.0f),
+                halfHeight + (circleDiameter / 2.0f));
+        rightCircle.set(
+                centerRightCircleX - (circleDiameter / 2.0f),
+                halfHeight - (circleDiameter / 2.0f),
+                centerRightCircleX + (circleDiameter / 2.0f),
+                halfHeight + (circleDiameter / 2.0f));
+    }
+
+    public Box getLeftCircle() {
+        return leftCircle;
+    }
+
+    public Box getRightCircle() {
+        return rightCircle;
+    }
+
+    public Box getHole() {
+        return hole;
+    }
+
+    public Box getMiddleBlock() {
+        return middleBlock;
+    }
+}
@@ -0,0 +1,183 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Game logic of a level, without any dependency on the Android framework
+// Times are match times in nanoseconds, sizes are pixels of the (possibly virtual) screen
+public abstract class LevelModel {
+    // Value of the stimulus onset while the success condition is not met
+    public static final long NO_STIMULUS_ONSET = Long.MIN_VALUE;
+    // Value of the next update time when no update is pending
+    public static final long NO_UPDATE = Long.MAX_VALUE;
+    // Step and precision (in nanoseconds) used to find when a time dependent condition became true
+    private static final long ONSET_SEARCH_STEP = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long ONSET_SEARCH_PRECISION = TimeUnit.MICROSECONDS.toNanos(10);
+    // Constants of the level
+    private final LevelParameters parameters;
+    // Random number generator
+    private final Random random;
+    // Screen size
+    protected float width;
+    protected float height;
+    // Time when the level started
+    protected long startTime;
+    // Flag to see if the level started
+    private boolean started;
+    // Time at which the success condition became true
+    private long stimulusOnset;
+
+    protected LevelModel(LevelParameters parameters, Random random) {
+        this.parameters = parameters;
+        this.random = random;
+        started = false;
+        stimulusOnset = NO_STIMULUS_ONSET;
+    }
+
+    public void start(float width, float height, long startTime) {
+        this.width = width;
+        this.height = height;
+        this.startTime = startTime;
+        started = true;
+        initialize();
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    // Create the initial state, once the screen size and the start time are known
+    protected abstract void initialize();
+
+    // Bring the state up to the given time
+    public abstract void advanceTo(long time);
+
+    // Continuous models are advanced on every frame, the rest only when their next update is due
+    public boolean isContinuous() {
+        return false;
+    }
+
+    public long getNextUpdateTime() {
+        return NO_UPDATE;
+    }
+
+    // Callback when a frame with the current state reaches the screen
+    public void onFramePresented(long time) {
+    }
+
+    // Success condition in the current state (as it is on the screen)
+    public abstract boolean isSuccess();
+
+    // Judge a tap at the given time (the model is not advanced after a tap)
+    public boolean onPlayerTap(long eventTime) {
+        // Taps are judged after they happen, do not credit a success condition met after the touch
+        return isSuccess() && ((stimulusOnset == NO_STIMULUS_ONSET) || (stimulusOnset <= eventTime));
+    }
+
+    public boolean hasStimulusOnset() {
+        return (stimulusOnset != NO_STIMULUS_ONSET);
+    }
+
+    public long getStimulusOnset() {
+        return stimulusOnset;
+    }
+
+    // Flag to see if the onset is the time the frame is presented, instead of the time the change is requested
+    public boolean isStimulusOnsetPresented() {
+        return false;
+    }
+
+    protected void markStimulusOnset(long time) {
+        // Keep the first instant of the current period in which the success condition holds
+        if (stimulusOnset == NO_STIMULUS_ONSET) {
+            stimulusOnset = time;
+        }
+    }
+
+    protected void clearStimulusOnset() {
+        // The success condition does not hold anymore
+        stimulusOnset = NO_STIMULUS_ONSET;
+    }
+
+    protected void trackStimulusOnset(long time) {
+        // Keep track of when the success condition holds after an update
+        if (isSuccess()) {
+            markStimulusOnset(time);
+        } else {
+            clearStimulusOnset();
+        }
+    }
+
+    protected static long findStimulusOnset(TimeCondition condition, long time, long startTime) {
+        // Walk back in time until the condition does not hold
+        long holds = time;
+        long fails = holds - ONSET_SEARCH_STEP;
+        while ((fails > startTime) && condition.holdsAt(fails)) {
+            holds = fails;
+            fails -= ONSET_SEARCH_STEP;
+        }
+
+        // The condition holds since the start
+        if (fails <= startTime) {
+            if (condition.holdsAt(startTime)) {
+                return startTime;
+            }
+            fails = startTime;
+        }
+
+        // Bisect the last step to find the transition
+        while ((holds - fails) > ONSET_SEARCH_PRECISION) {
+            long middle = fails + ((holds - fails) / 2);
+            if (condition.holdsAt(middle)) {
+                holds = middle;
+            } else {
+                fails = middle;
+            }
+        }
+
+        return holds;
+    }
+
+    protected int getInteger(String name) {
+        return parameters.getInteger(name);
+    }
+
+    protected float getFraction(String name) {
+        return parameters.getFraction(name);
+    }
+
+    protected int randomInt(String nameMin, String nameMax) {
+        return randomInInterval(getInteger(nameMin), getInteger(nameMax));
+    }
+
+    protected float randomFloat(String nameMin, String nameMax) {
+        return randomInInterval(getFraction(nameMin), getFraction(nameMax));
+    }
+
+    protected boolean randomBoolean() {
+        return random.nextBoolean();
+    }
+
+    protected double randomDouble() {
+        return random.nextDouble();
+    }
+
+    protected void shuffle(List<?> list) {
+        Collections.shuffle(list, random);
+    }
+
+    protected int randomInInterval(int min, int max) {
+        return random.nextInt(max - min + 1) + min;
+    }
+
+    protected float randomInInterval(float min, float max) {
+        return (float) (min + (max - min) * random.nextDouble());
+    }
+
+    // Success condition of a level whose state is a function of time
+    protected interface TimeCondition {
+        boolean holdsAt(long time);
+    }
+}
@@ -0,0 +1,9 @@
+package sneakycoders.visualreact.level.model;
+
+// Constants of the levels (res/values/ingame.xml), looked up by their resource name
+public interface LevelParameters {
+    int getInteger(String name);
+
+    // Fractions are relative to 1 (50% is 0.5)
+    float getFraction(String name);
+}
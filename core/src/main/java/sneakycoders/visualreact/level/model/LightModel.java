@@ -0,0 +1,86 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+
+// Grid of cells that randomly turn light and dark
+public class LightModel extends PeriodicLevelModel {
+    // Cells in the X axis
+    private int cellsX;
+    // Cells in the Y axis
+    private int cellsY;
+    // Light cells counter
+    private int totalLightCells;
+    // Light Cells
+    private boolean[][] lightCells;
+    // Probability of changing from dark to light on each update
+    private float darkToLight;
+    // Probability of changing from light to dark on each update
+    private float lightToDark;
+
+    public LightModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Number of cells in each axis
+        cellsX = getInteger("level_light_cells_x");
+        cellsY = getInteger("level_light_cells_y");
+        lightCells = new boolean[cellsX][cellsY];
+        totalLightCells = 0;
+
+        // Transition probabilities
+        darkToLight = randomFloat("level_light_min_dark_to_light", "level_light_max_dark_to_light");
+        lightToDark = randomFloat("level_light_min_light_to_dark", "level_light_max_light_to_dark");
+
+        // Start updating the cells
+        startUpdates(randomInt("level_light_min_delay", "level_light_max_delay"));
+    }
+
+    @Override
+    protected void updateCells(long time) {
+        int i = randomInInterval(0, cellsX - 1);
+        int j = randomInInterval(0, cellsY - 1);
+        double r = randomDouble();
+        // Light cell
+        if (lightCells[i][j]) {
+            if (r <= lightToDark) {
+                lightCells[i][j] = false;
+                totalLightCells--;
+            }
+        }
+        // Dark cell
+        else {
+            if (r <= darkToLight) {
+                lightCells[i][j] = true;
+                totalLightCells++;
+            }
+        }
+    }
+
+    @Override
+    public boolean isSuccess() {
+        // Success if more than half of the cells are light
+        return moreCellsLightThanDark();
+    }
+
+    public boolean moreCellsLightThanDark() {
+        return (totalLightCells > ((cellsX * cellsY) / 2));
+    }
+
+    public int getCellsX() {
+        return cellsX;
+    }
+
+    public int getCellsY() {
+        return cellsY;
+    }
+
+    public boolean isLight(int i, int j) {
+        return lightCells[i][j];
+    }
+
+    public int getTotalLightCells() {
+        return totalLightCells;
+    }
+}
@@ -0,0 +1,190 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+// Grid filled one cell at a time with circles and crosses, until a line of the same shape appears
+public class LineModel extends PeriodicLevelModel {
+    // Directions of the runs (row and column steps): horizontal, vertical, diagonal from left to right, diagonal from right to left
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    // Cells in the X axis and Y axis
+    private int nCells;
+    // Length of a run of the same shape that wins (a full line in the classic grid)
+    private int runLength;
+    // Cells types
+    private ShapeType[][] cellTypes;
+    // Cells in a line (after a tap)
+    private boolean[][] highlighted;
+    // Filled cells (by position)
+    private BitSet filledCells;
+    // Length of the run of the same shape each cell belongs to, in each direction (only kept up to date at the ends of the runs)
+    private int[][] runs;
+    // Number of runs that win
+    private int nLines;
+    // Cells, the not filled ones first and then the filled ones
+    private int[] cellOrder;
+    // Number of not filled cells
+    private int numNotFilled;
+
+    public LineModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Large grid, where any run of the same shape wins, or classic grid, where a full line wins
+        boolean largeGrid = randomDouble() < getFraction("level_line_large_grid_probability");
+
+        // Number of cells in each axis
+        nCells = largeGrid ? getInteger("level_line_large_cells") : getInteger("level_line_cells");
+        runLength = largeGrid ? getInteger("level_line_large_run_length") : nCells;
+
+        // Initialize cells matrices
+        cellTypes = new ShapeType[nCells][nCells];
+        highlighted = new boolean[nCells][nCells];
+
+        // Initialize fill state and runs
+        filledCells = new BitSet(nCells * nCells);
+        runs = new int[DIRECTIONS.length][nCells * nCells];
+        nLines = 0;
+
+        // Initialize the order of the cells, all of them not filled
+        cellOrder = new int[nCells * nCells];
+        for (int i = 0; i < cellOrder.length; i++) {
+            cellOrder[i] = i;
+        }
+        numNotFilled = cellOrder.length;
+
+        // Start updating the cells
+        if (largeGrid) {
+            startUpdates(randomInt("level_line_large_min_delay", "level_line_large_max_delay"));
+        } else {
+            startUpdates(randomInt("level_line_min_delay", "level_line_max_delay"));
+        }
+    }
+
+    @Override
+    protected void updateCells(long time) {
+        // All cells are filled
+        if (numNotFilled == 0) {
+            // Empty the grid
+            numNotFilled = cellOrder.length;
+            filledCells.clear();
+            for (int[] directionRuns : runs) {
+                Arrays.fill(directionRuns, 0);
+            }
+            nLines = 0;
+        }
+        // More cells need to be filled
+        else {
+            // Cell to be filled, moved to the first position of the filled ones
+            int cellInd = randomInInterval(0, numNotFilled - 1);
+            int cellPos = cellOrder[cellInd];
+            numNotFilled--;
+            cellOrder[cellInd] = cellOrder[numNotFilled];
+            cellOrder[numNotFilled] = cellPos;
+
+            // Type of the cell
+            boolean isCircle = randomBoolean();
+
+            // Update the grid
+            int row = cellPos / nCells;
+            int col = cellPos % nCells;
+            cellTypes[row][col] = isCircle ? ShapeType.Circle : ShapeType.Cross;
+            filledCells.set(cellPos);
+
+            // Join the cell to the runs next to it
+            for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                joinRuns(direction, row, col);
+            }
+        }
+    }
+
+    private void joinRuns(int direction, int row, int col) {
+        // Runs of the same shape before and after the cell (their ends are next to the cell)
+        int dRow = DIRECTIONS[direction][0];
+        int dCol = DIRECTIONS[direction][1];
+        int[] directionRuns = runs[direction];
+        int before = runAt(directionRuns, row - dRow, col - dCol, cellTypes[row][col]);
+        int after = runAt(directionRuns, row + dRow, col + dCol, cellTypes[row][col]);
+
+        // Keep the length of the joined run at its ends
+        int length = before + 1 + after;
+        directionRuns[row * nCells + col] = length;
+        directionRuns[(row - before * dRow) * nCells + (col - before * dCol)] = length;
+        directionRuns[(row + after * dRow) * nCells + (col + after * dCol)] = length;
+
+        // Count the winning runs, the onset is the time of the update in which one appears
+        nLines += ((length >= runLength) ? 1 : 0) - ((before >= runLength) ? 1 : 0) - ((after >= runLength) ? 1 : 0);
+    }
+
+    private int runAt(int[] directionRuns, int row, int col, ShapeType shapeType) {
+        // Length of the run that ends at the cell, if it is of the given shape
+        if ((row < 0) || (row >= nCells) || (col < 0) || (col >= nCells)
+                || (!filledCells.get(row * nCells + col)) || (cellTypes[row][col] != shapeType)) {
+            return 0;
+        }
+        return directionRuns[row * nCells + col];
+    }
+
+    @Override
+    public boolean isSuccess() {
+        // Success if there is at least one winning run
+        return (nLines > 0);
+    }
+
+    @Override
+    public boolean onPlayerTap(long eventTime) {
+        // Highlight the lines
+        boolean result = super.onPlayerTap(eventTime);
+        if (result) {
+            highlightLines();
+        }
+        return result;
+    }
+
+    private void highlightLines() {
+        // Highlight every winning run from the cell where it starts (only the filled cells)
+        for (int cell = filledCells.nextSetBit(0); cell != -1; cell = filledCells.nextSetBit(cell + 1)) {
+            int row = cell / nCells;
+            int col = cell % nCells;
+            for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                int dRow = DIRECTIONS[direction][0];
+                int dCol = DIRECTIONS[direction][1];
+                if ((runAt(runs[direction], row - dRow, col - dCol, cellTypes[row][col]) == 0)
+                        && (runs[direction][cell] >= runLength)) {
+                    for (int i = 0; i < runs[direction][cell]; i++) {
+                        highlighted[row + i * dRow][col + i * dCol] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    public int getCells() {
+        return nCells;
+    }
+
+    public boolean isFilled(int row, int col) {
+        return filledCells.get(row * nCells + col);
+    }
+
+    public int getNextFilledCell(int index) {
+        // First filled cell (row * cells + column) from the given one, or -1 if there is none
+        return filledCells.nextSetBit(index);
+    }
+
+    public ShapeType getCellType(int row, int col) {
+        return cellTypes[row][col];
+    }
+
+    public boolean isHighlighted(int row, int col) {
+        return highlighted[row][col];
+    }
+
+    // Types of shape
+    public enum ShapeType {
+        Circle, Cross
+    }
+}
@@ -0,0 +1,465 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.level.FixedTimestep;
+
+// Two rows of shapes moving in opposite directions, until two equal shapes are visible
+public class PairModel extends LevelModel {
+    // Shape types (by ordinal)
+    private static final ShapeType[] SHAPE_TYPES = ShapeType.values();
+    // Start of a duplicate for the types without more than one visible shape
+    public static final long NO_DUPLICATE = Long.MIN_VALUE;
+    // Number of shapes on the screen initially for each row (top and bottom)
+    private int shapesPerRow;
+    // Flag to add random shapes instead of unique ones
+    private boolean uniqueShapes;
+    // Sequences of shapes
+    private ShapeRow topShapes;
+    private ShapeRow bottomShapes;
+    // Shapes of each row not on the screen yet (at the start of the top row, and at the end of the bottom row)
+    private int topHidden;
+    private int bottomHidden;
+    // Shapes of each row already out of the screen (at the end of the top row, and at the start of the bottom row)
+    private int topGone;
+    private int bottomGone;
+    private Shape[] unusedShapes;
+    private int numUnusedShapes;
+    // Shapes out of the rows, reused for the random shapes
+    private Shape[] freeShapes;
+    private int numFreeShapes;
+    // Number of visible shapes of each type, and number of types with more than one visible shape
+    private int[] visibleShapeTypes;
+    private int duplicateShapeTypes;
+    // Time since each type has more than one visible shape (or NO_DUPLICATE)
+    private long[] duplicateStarts;
+    // Callback when a type stops having more than one visible shape (may be null)
+    private DuplicateListener duplicateListener;
+    // Identifier of the next shape created
+    private int nextShapeId;
+    // Cell of each shape
+    private float cellWidth;
+    private float cellHeight;
+    private float padding;
+    // Horizontal extent of each shape type inside its cell (to know when it is out of the screen)
+    private float[] visibleLeft;
+    private float[] visibleRight;
+    // Starting points for the new shapes
+    private float topStartX;
+    private float topStartY;
+    private float bottomStartX;
+    private float bottomStartY;
+    // Distance moved on each simulation step
+    private float dx;
+    // Time to switch to random shapes
+    private long randomShapesTime;
+    // Simulation in fixed steps
+    private FixedTimestep timestep;
+    // Elapsed fraction of the next simulation step (to draw the shapes between steps)
+    private float stepFraction;
+
+    public PairModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Add distinctive shapes
+        uniqueShapes = true;
+
+        // Number of shapes on the screen
+        shapesPerRow = getInteger("level_pair_shapes_per_row");
+
+        // Sequences of shapes
+        // Note: a row spans from one cell before the screen to one cell after it, and moons stick out of their cells
+        int rowCapacity = shapesPerRow + 3;
+        topShapes = new ShapeRow(rowCapacity);
+        bottomShapes = new ShapeRow(rowCapacity);
+        visibleShapeTypes = new int[SHAPE_TYPES.length];
+        duplicateShapeTypes = 0;
+        duplicateStarts = new long[SHAPE_TYPES.length];
+        Arrays.fill(duplicateStarts, NO_DUPLICATE);
+        nextShapeId = 0;
+
+        // Distance between upper and lower rectangles
+        // Margin (top, middle, bottom)
+        float margin = height * getFraction("level_pair_vertical_margin");
+
+        // Rectangle to the right of screen where shapes are initialized
+        cellWidth = width / ((float) shapesPerRow);
+        cellHeight = (height - 3.0f * margin) / 2.0f;
+        padding = Math.min(cellWidth, cellHeight) * getFraction("level_pair_inside_padding");
+        setVisibleExtents();
+
+        // Starting points for the new shapes
+        topStartX = -cellWidth;
+        topStartY = margin;
+        bottomStartX = width;
+        bottomStartY = height - margin - cellHeight;
+
+        // Store the initial shapes
+        // Note: there must at least (2 * (shapesPerRow + 1)) unique shapes
+        unusedShapes = new Shape[SHAPE_TYPES.length];
+        numUnusedShapes = 0;
+        for (ShapeType shapeType : SHAPE_TYPES) {
+            unusedShapes[numUnusedShapes++] = new Shape(shapeType, nextShapeId++);
+        }
+
+        // Shapes for every cell of both rows, so that no shape is created once the random shapes start
+        // Note: the unique shapes join them as they leave the rows
+        freeShapes = new Shape[2 * rowCapacity + SHAPE_TYPES.length];
+        numFreeShapes = 0;
+        for (int i = 0; i < (2 * rowCapacity); i++) {
+            freeShapes[numFreeShapes++] = new Shape(SHAPE_TYPES[0], 0);
+        }
+
+        // Randomly choose shapes for top and bottom
+        shuffle(Arrays.asList(unusedShapes));
+        for (int i = 0; i < shapesPerRow; i++) {
+            // Select random shapes and move them to the right position
+            Shape topShape = removeUnusedShape(0);
+            topShape.offsetTo(i * cellWidth, topStartY);
+            Shape bottomShape = removeUnusedShape(0);
+            bottomShape.offsetTo(i * cellWidth, bottomStartY);
+
+            // Put shapes in the rows
+            topShapes.addLast(topShape);
+            bottomShapes.addLast(bottomShape);
+        }
+
+        // Count the shapes on the screen, all of them start as not shown yet
+        topHidden = shapesPerRow;
+        bottomHidden = shapesPerRow;
+        topGone = 0;
+        bottomGone = 0;
+        updateTopVisibility(startTime);
+        updateBottomVisibility(startTime);
+
+        // Movement parameters (distance moved on each simulation step)
+        int travelTime = randomInt("level_pair_minimum_travel_time", "level_pair_maximum_travel_time");
+        long stepTime = TimeUnit.SECONDS.toNanos(1) / getInteger("level_pair_steps_per_second");
+        dx = width * stepTime / (float) TimeUnit.MILLISECONDS.toNanos(travelTime);
+
+        // Switch to random shapes eventually
+        randomShapesTime = startTime + TimeUnit.MILLISECONDS.toNanos(randomInt("level_pair_minimum_time_before_random_shapes", "level_pair_maximum_time_before_random_shapes"));
+
+        // Simulate the movement in fixed steps, so that it does not depend on the frame rate
+        timestep = new FixedTimestep(stepTime, startTime, this::moveShapes);
+        stepFraction = 0;
+    }
+
+    private void setVisibleExtents() {
+        // Dimensions of the shapes (see how they are drawn)
+        float rectangleWidth = cellWidth * getFraction("level_pair_rectangle_width") - 2.0f * padding;
+        float squareSide = Math.min(cellWidth, cellHeight) - 2.0f * padding;
+        float crossSize = Math.min(cellWidth, cellHeight) * getFraction("level_pair_cross_size");
+        float arrowWidth = cellWidth - 2.0f * padding;
+        float arrowHeadSize = Math.min(arrowWidth, (cellHeight - 2.0f * padding) * getFraction("level_pair_arrow_head_height"));
+        float moonInnerWidth = cellWidth * getFraction("level_pair_moon_inner_width");
+
+        // Extent of each shape type
+        visibleLeft = new float[SHAPE_TYPES.length];
+        visibleRight = new float[SHAPE_TYPES.length];
+        for (ShapeType shapeType : SHAPE_TYPES) {
+            int i = shapeType.ordinal();
+            switch (shapeType) {
+                case Rectangle:
+                case Oval:
+                    visibleLeft[i] = (cellWidth - rectangleWidth) / 2.0f;
+                    visibleRight[i] = (cellWidth + rectangleWidth) / 2.0f;
+                    break;
+                case Square:
+                case Circle:
+                case EquilateralTriangle:
+                    visibleLeft[i] = (cellWidth - squareSide) / 2.0f;
+                    visibleRight[i] = (cellWidth + squareSide) / 2.0f;
+                    break;
+                case RightTriangle:
+                    visibleLeft[i] = padding;
+                    visibleRight[i] = cellWidth - padding;
+                    break;
+                case Arrow:
+                    visibleLeft[i] = padding + (arrowWidth - arrowHeadSize) / 2.0f;
+                    visibleRight[i] = padding + (arrowWidth + arrowHeadSize) / 2.0f;
+                    break;
+                case Moon:
+                    visibleLeft[i] = padding - (moonInnerWidth / 2.0f);
+                    visibleRight[i] = cellWidth - padding - (moonInnerWidth / 2.0f);
+                    break;
+                default:
+                    visibleLeft[i] = padding;
+                    visibleRight[i] = cellWidth - crossSize;
+                    break;
+            }
+        }
+    }
+
+    private Shape removeUnusedShape(int index) {
+        // Keep the order of the rest
+        Shape shape = unusedShapes[index];
+        System.arraycopy(unusedShapes, index + 1, unusedShapes, index, numUnusedShapes - index - 1);
+        numUnusedShapes--;
+        return shape;
+    }
+
+    private Shape nextShape() {
+        // Unique shapes come from the unused ones
+        if (uniqueShapes) {
+            return removeUnusedShape(randomInInterval(0, numUnusedShapes - 1));
+        }
+
+        // Random shapes are free shapes with a new type and identifier
+        Shape shape = freeShapes[--numFreeShapes];
+        shape.reset(SHAPE_TYPES[randomInInterval(0, SHAPE_TYPES.length - 1)], nextShapeId++);
+        return shape;
+    }
+
+    private void releaseShape(Shape shape) {
+        // Back to the unique shapes, or to the free shapes once the shapes are random
+        if (uniqueShapes) {
+            unusedShapes[numUnusedShapes++] = shape;
+        } else {
+            freeShapes[numFreeShapes++] = shape;
+        }
+    }
+
+    private void moveShapes(long time) {
+        // Switch to random shapes
+        if (time >= randomShapesTime) {
+            uniqueShapes = false;
+        }
+
+        // Update the position of the top shapes
+        for (int i = 0; i < topShapes.size(); i++) {
+            topShapes.get(i).offset(dx, 0);
+        }
+        updateTopVisibility(time);
+
+        // Update the position of the bottom shapes
+        for (int i = 0; i < bottomShapes.size(); i++) {
+            bottomShapes.get(i).offset(-dx, 0);
+        }
+        updateBottomVisibility(time);
+
+        // Remove top shape if needed (it is already out of the screen)
+        if (isOutOfScreen(topShapes.getLast())) {
+            releaseShape(topShapes.removeLast());
+            topGone--;
+        }
+
+        // Add a new top shape if needed
+        if (topShapes.getFirst().getX() >= 0) {
+            // Move the shape to its starting position
+            Shape shape = nextShape();
+            shape.offsetTo(topStartX, topStartY);
+
+            // Add shape
+            topShapes.addFirst(shape);
+            topHidden++;
+            updateTopVisibility(time);
+        }
+
+        // Remove bottom shape if needed (it is already out of the screen)
+        if (isOutOfScreen(bottomShapes.getFirst())) {
+            releaseShape(bottomShapes.removeFirst());
+            bottomGone--;
+        }
+
+        // Add a new bottom shape if needed
+        if ((bottomShapes.getLast().getX() + cellWidth) <= width) {
+            // Move the shape to its starting position
+            Shape shape = nextShape();
+            shape.offsetTo(bottomStartX, bottomStartY);
+
+            // Add shape
+            bottomShapes.addLast(shape);
+            bottomHidden++;
+            updateBottomVisibility(time);
+        }
+
+        // Keep track of when two equal shapes are visible
+        trackStimulusOnset(time);
+    }
+
+    private void updateTopVisibility(long time) {
+        // The top shapes enter the screen by the left, from the last one not shown yet, and leave it by the right
+        while ((topHidden > 0) && updateVisibility(topShapes.get(topHidden - 1), time)) {
+            topHidden--;
+        }
+        while ((topGone < (topShapes.size() - topHidden)) && updateVisibility(topShapes.get(topShapes.size() - 1 - topGone), time)) {
+            topGone++;
+        }
+    }
+
+    private void updateBottomVisibility(long time) {
+        // The bottom shapes enter the screen by the right, from the first one not shown yet, and leave it by the left
+        while ((bottomHidden > 0) && updateVisibility(bottomShapes.get(bottomShapes.size() - bottomHidden), time)) {
+            bottomHidden--;
+        }
+        while ((bottomGone < (bottomShapes.size() - bottomHidden)) && updateVisibility(bottomShapes.get(bottomGone), time)) {
+            bottomGone++;
+        }
+    }
+
+    private boolean updateVisibility(Shape shape, long time) {
+        // Count the shape only when it crosses an edge of the screen
+        boolean visible = !isOutOfScreen(shape);
+        if (visible == shape.isVisible()) {
+            return false;
+        }
+        shape.setVisible(visible);
+
+        // Keep track of the types with more than one visible shape
+        int i = shape.getShapeType().ordinal();
+        if (visible) {
+            if (++visibleShapeTypes[i] == 2) {
+                duplicateShapeTypes++;
+                duplicateStarts[i] = time;
+            }
+        } else if (visibleShapeTypes[i]-- == 2) {
+            duplicateShapeTypes--;
+            if (duplicateListener != null) {
+                duplicateListener.onDuplicateHidden(shape.getShapeType(), duplicateStarts[i], time);
+            }
+            duplicateStarts[i] = NO_DUPLICATE;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return true;
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        stepFraction = timestep.advanceTo(time);
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return (duplicateShapeTypes > 0);
+    }
+
+    @Override
+    public boolean onPlayerTap(long eventTime) {
+        // The shapes are judged where they are after the last step
+        stepFraction = 0;
+        return super.onPlayerTap(eventTime);
+    }
+
+    public boolean isOutOfScreen(Shape shape) {
+        int i = shape.getShapeType().ordinal();
+        return ((shape.getX() + visibleRight[i]) <= 0) || ((shape.getX() + visibleLeft[i]) >= width);
+    }
+
+    public boolean isDuplicate(Shape shape) {
+        // Visible shape with another visible shape of the same type
+        return shape.isVisible() && (visibleShapeTypes[shape.getShapeType().ordinal()] > 1);
+    }
+
+    public long getDuplicateStart(ShapeType shapeType) {
+        return duplicateStarts[shapeType.ordinal()];
+    }
+
+    public void setDuplicateListener(DuplicateListener duplicateListener) {
+        this.duplicateListener = duplicateListener;
+    }
+
+    public ShapeRow getTopShapes() {
+        return topShapes;
+    }
+
+    public ShapeRow getBottomShapes() {
+        return bottomShapes;
+    }
+
+    public float getCellWidth() {
+        return cellWidth;
+    }
+
+    public float getCellHeight() {
+        return cellHeight;
+    }
+
+    public float getPadding() {
+        return padding;
+    }
+
+    public float getStepDistance() {
+        return dx;
+    }
+
+    public float getStepFraction() {
+        return stepFraction;
+    }
+
+    // Callback when a type stops having more than one visible shape, with the interval in which it had them
+    public interface DuplicateListener {
+        void onDuplicateHidden(ShapeType shapeType, long start, long end);
+    }
+
+    // Shape types
+    public enum ShapeType {
+        Rectangle, Square, Circle, Oval, CrossTwo, CrossThree, CrossFour, CrossFive, CrossSix, EquilateralTriangle, RightTriangle, Arrow, Moon
+    }
+
+    // Shape in a row, placed by the top left corner of its cell (reused once it leaves its row)
+    public static class Shape {
+        // Type of the shape
+        private ShapeType shapeType;
+        // Identifier of the shape (in order of creation)
+        private int id;
+        // Position of the cell
+        private float x;
+        private float y;
+        // Flag to see if the shape is on the screen (as counted on the last update)
+        private boolean visible;
+
+        Shape(ShapeType shapeType, int id) {
+            reset(shapeType, id);
+        }
+
+        void reset(ShapeType shapeType, int id) {
+            this.shapeType = shapeType;
+            this.id = id;
+            visible = false;
+        }
+
+        void setVisible(boolean visible) {
+            this.visible = visible;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        void offset(float dx, float dy) {
+            x += dx;
+            y += dy;
+        }
+
+        void offsetTo(float x, float y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public ShapeType getShapeType() {
+            return shapeType;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public float getX() {
+            return x;
+        }
+
+        public float getY() {
+            return y;
+        }
+    }
+}
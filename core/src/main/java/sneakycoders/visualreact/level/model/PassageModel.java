@@ -0,0 +1,176 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.level.FixedTimestep;
+
+// Lines with a moving passage each, until the passages are aligned vertically
+public class PassageModel extends LevelModel {
+    // Shapes
+    private Box[] passages;
+    private Box[] lines;
+    private Box verticalPassage;
+    // Common passage of all the lines (reused on each update)
+    private Box commonPassage;
+    // Number of passages
+    private int numPassages;
+    // Distance moved by each passage on each simulation step
+    private float[] passagesDistEachStep;
+    // Margins where the passages turn back
+    private float marginLeft;
+    private float marginRight;
+    // Simulation in fixed steps
+    private FixedTimestep timestep;
+    // Elapsed fraction of the next simulation step (to draw the passages between steps)
+    private float stepFraction;
+
+    public PassageModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Number of passages
+        numPassages = getInteger("level_passage_num_passages");
+
+        // Create shapes arrays
+        lines = new Box[numPassages];
+        passages = new Box[numPassages];
+
+        // Vertical passage is set when a player taps
+        verticalPassage = null;
+        commonPassage = new Box();
+
+        // Lines
+        float lineHeight = height * getFraction("level_passage_line_height");
+        float lineSeparation = height / (float) numPassages;
+        float linesStartingPoint = (lineSeparation - lineHeight) / 2.0f;
+        for (int i = 0; i < numPassages; ++i) {
+            float top = linesStartingPoint + (i * lineSeparation);
+            lines[i] = new Box(0, top, width, top + lineHeight);
+        }
+
+        // Set the delay before the passage is available
+        int delay = randomInt("level_passage_min_delay", "level_passage_max_delay");
+
+        // Constants for the passages
+        float minCommonPoint = height * getFraction("level_passage_max_passage_width");
+        float maxCommonPoint = height - minCommonPoint;
+        float commonPoint = randomInInterval(minCommonPoint, maxCommonPoint);
+        marginLeft = height * getFraction("level_passage_margin");
+        marginRight = width - marginLeft;
+
+        // Duration of each simulation step
+        long stepTime = TimeUnit.SECONDS.toNanos(1) / getInteger("level_passage_steps_per_second");
+
+        // Create passages
+        passagesDistEachStep = new float[numPassages];
+        for (int i = 0; i < numPassages; ++i) {
+            // Initialize passage
+            float passageWidth = height * randomFloat("level_passage_min_passage_width", "level_passage_max_passage_width");
+            float startingPoint = ((i % 2) == 0) ? marginLeft : marginRight - passageWidth;
+            passages[i] = new Box(startingPoint, lines[i].top, startingPoint + passageWidth, lines[i].bottom);
+
+            // Randomize path
+            float shortestDistanceBeforeCommonPoint = commonPoint - (startingPoint + (passageWidth / 2.0f));
+            int trips = randomInt("level_passage_min_trips", "level_passage_max_trips");
+            float direction = randomBoolean() ? 1.0f : -1.0f;
+            float distanceBeforeCommonPoint = shortestDistanceBeforeCommonPoint + direction * trips * (marginRight - marginLeft - passageWidth);
+            passagesDistEachStep[i] = stepTime * distanceBeforeCommonPoint / TimeUnit.MILLISECONDS.toNanos(delay);
+        }
+
+        // Simulate the movement in fixed steps, so that it does not depend on the frame rate
+        timestep = new FixedTimestep(stepTime, startTime, this::movePassages);
+        stepFraction = 0;
+    }
+
+    private void movePassages(long time) {
+        // Move shapes
+        for (int i = 0; i < numPassages; ++i) {
+            float dist = passagesDistEachStep[i];
+            passages[i].offset(dist, 0);
+
+            // Turn back if needed
+            if ((passages[i].left < marginLeft) && (dist < 0)) {
+                passagesDistEachStep[i] = -dist;
+                passages[i].offset(2.0f * (marginLeft - passages[i].left), 0);
+            } else if ((passages[i].right > marginRight) && (dist > 0)) {
+                passagesDistEachStep[i] = -dist;
+                passages[i].offset(2.0f * (marginRight - passages[i].right), 0);
+            }
+        }
+
+        // Keep track of when there is a vertical passage
+        trackStimulusOnset(time);
+    }
+
+    @Override
+    public boolean isContinuous() {
+        return true;
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        stepFraction = timestep.advanceTo(time);
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return findVerticalPassage(commonPassage);
+    }
+
+    @Override
+    public boolean onPlayerTap(long eventTime) {
+        // The passages are judged where they are after the last step
+        stepFraction = 0;
+
+        // Try to find a vertical passage
+        boolean result = super.onPlayerTap(eventTime);
+        if (result) {
+            verticalPassage = new Box(commonPassage);
+        }
+
+        return result;
+    }
+
+    private boolean findVerticalPassage(Box passage) {
+        // Intersection of all the passages in the X axis
+        float minX = passages[0].left;
+        float maxX = passages[0].right;
+        for (int i = 1; i < numPassages; i++) {
+            minX = Math.max(minX, passages[i].left);
+            maxX = Math.min(maxX, passages[i].right);
+        }
+        minX = (float) Math.ceil(minX);
+        maxX = (float) Math.floor(maxX);
+        passage.set(minX, 0, maxX, height);
+
+        // Check that there exists a valid passage
+        return (minX < maxX);
+    }
+
+    public int getNumPassages() {
+        return numPassages;
+    }
+
+    public Box getLine(int i) {
+        return lines[i];
+    }
+
+    public Box getPassage(int i) {
+        return passages[i];
+    }
+
+    public float getDistEachStep(int i) {
+        return passagesDistEachStep[i];
+    }
+
+    public float getStepFraction() {
+        return stepFraction;
+    }
+
+    public Box getVerticalPassage() {
+        return verticalPassage;
+    }
+}
@@ -0,0 +1,121 @@
+package sneakycoders.visualreact.level.model;
+
+// Connected components of the paths drawn by the cells of a grid
+// Every cell has two arms, so a component is a single path or a cycle: a change only relabels the components it touches
+// Cells are identified by their index in the grid (x * cellsY + y)
+final class PathComponents {
+    // Arms of a cell (bit flags)
+    static final int LEFT = 1;
+    static final int RIGHT = 2;
+    static final int TOP = 4;
+    static final int BOTTOM = 8;
+    // Cells in each axis
+    private final int cellsX;
+    private final int cellsY;
+    // Arms of each cell
+    private final int[] arms;
+    // Component of each cell, and the label of the next component
+    private final int[] labels;
+    private int nextLabel;
+    // Cells pending in a walk (reused)
+    private final int[] pending;
+    private int numPending;
+
+    PathComponents(int cellsX, int cellsY) {
+        this.cellsX = cellsX;
+        this.cellsY = cellsY;
+        arms = new int[cellsX * cellsY];
+        labels = new int[cellsX * cellsY];
+        nextLabel = 0;
+        pending = new int[cellsX * cellsY];
+    }
+
+    void setArms(int cell, int cellArms) {
+        arms[cell] = cellArms;
+    }
+
+    void labelAll() {
+        // Walk every component once
+        for (int cell = 0; cell < labels.length; cell++) {
+            labels[cell] = -1;
+        }
+        for (int cell = 0; cell < labels.length; cell++) {
+            if (labels[cell] == -1) {
+                relabel(cell);
+            }
+        }
+    }
+
+    void update(int cell, int cellArms) {
+        // Neighbors connected before the change
+        int previousArms = arms[cell];
+        int previousLabel = labels[cell];
+        int x = cell / cellsY;
+        int y = cell % cellsY;
+        int left = connectedNeighbor(x, y, LEFT, RIGHT);
+        int right = connectedNeighbor(x, y, RIGHT, LEFT);
+        int top = connectedNeighbor(x, y, TOP, BOTTOM);
+        int bottom = connectedNeighbor(x, y, BOTTOM, TOP);
+
+        // The component of the cell now (it joins the components of its new neighbors)
+        arms[cell] = cellArms;
+        relabel(cell);
+
+        // Previous neighbors not reached anymore are in a component of their own
+        if (previousArms != cellArms) {
+            relabelIfSplit(left, previousLabel);
+            relabelIfSplit(right, previousLabel);
+            relabelIfSplit(top, previousLabel);
+            relabelIfSplit(bottom, previousLabel);
+        }
+    }
+
+    private void relabelIfSplit(int cell, int previousLabel) {
+        if ((cell != -1) && (labels[cell] == previousLabel)) {
+            relabel(cell);
+        }
+    }
+
+    boolean connects(int cell, int cellArm, int otherCell, int otherCellArm) {
+        // Both cells have the given arms (towards the outside) and are in the same component
+        return ((arms[cell] & cellArm) != 0) && ((arms[otherCell] & otherCellArm) != 0)
+                && (labels[cell] == labels[otherCell]);
+    }
+
+    private void relabel(int start) {
+        // Give a new label to every cell reached from the start
+        int label = nextLabel++;
+        numPending = 0;
+        visit(start, label);
+        while (numPending > 0) {
+            int cell = pending[--numPending];
+            int x = cell / cellsY;
+            int y = cell % cellsY;
+            visit(connectedNeighbor(x, y, LEFT, RIGHT), label);
+            visit(connectedNeighbor(x, y, RIGHT, LEFT), label);
+            visit(connectedNeighbor(x, y, TOP, BOTTOM), label);
+            visit(connectedNeighbor(x, y, BOTTOM, TOP), label);
+        }
+    }
+
+    private void visit(int cell, int label) {
+        if ((cell != -1) && (labels[cell] != label)) {
+            labels[cell] = label;
+            pending[numPending++] = cell;
+        }
+    }
+
+    private int connectedNeighbor(int x, int y, int arm, int oppositeArm) {
+        // Neighbor in the direction of the arm, if it has the arm facing the cell
+        if ((arms[x * cellsY + y] & arm) == 0) {
+            return -1;
+        }
+        int neighborX = x + ((arm == LEFT) ? -1 : ((arm == RIGHT) ? 1 : 0));
+        int neighborY = y + ((arm == TOP) ? -1 : ((arm == BOTTOM) ? 1 : 0));
+        if ((neighborX < 0) || (neighborX >= cellsX) || (neighborY < 0) || (neighborY >= cellsY)) {
+            return -1;
+        }
+        int neighbor = neighborX * cellsY + neighborY;
+        return ((arms[neighbor] & oppositeArm) != 0) ? neighbor : -1;
+    }
+}
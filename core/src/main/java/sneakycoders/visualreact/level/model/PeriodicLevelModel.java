@@ -0,0 +1,42 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Level whose cells are updated one at a time, after a fixed delay
+public abstract class PeriodicLevelModel extends LevelModel {
+    // Delay between updates (in nanoseconds)
+    private long delay;
+    // Time when the next update is due
+    private long nextUpdateTime;
+
+    protected PeriodicLevelModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+        nextUpdateTime = NO_UPDATE;
+    }
+
+    protected void startUpdates(int delay) {
+        // First update after the delay (in milliseconds)
+        this.delay = TimeUnit.MILLISECONDS.toNanos(delay);
+        nextUpdateTime = startTime + this.delay;
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        // Run every update due, each one at the time it was due so that the state does not depend on when it runs
+        while (nextUpdateTime <= time) {
+            long updateTime = nextUpdateTime;
+            nextUpdateTime += delay;
+            updateCells(updateTime);
+            trackStimulusOnset(updateTime);
+        }
+    }
+
+    @Override
+    public long getNextUpdateTime() {
+        return nextUpdateTime;
+    }
+
+    // Update of the cells due at the given time
+    protected abstract void updateCells(long time);
+}
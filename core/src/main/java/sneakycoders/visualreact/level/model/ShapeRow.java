@@ -0,0 +1,70 @@
+package sneakycoders.visualreact.level.model;
+
+import sneakycoders.visualreact.level.model.PairModel.Shape;
+
+// Row of shapes from left to right, in a ring buffer of fixed capacity (shapes enter and leave by both ends)
+// The capacity must fit every shape that can be in the row at once (adding to a full row throws)
+public class ShapeRow {
+    // Shapes, the first one at the head
+    private final Shape[] shapes;
+    private int head;
+    private int size;
+
+    ShapeRow(int capacity) {
+        shapes = new Shape[capacity];
+        head = 0;
+        size = 0;
+    }
+
+    void addFirst(Shape shape) {
+        checkCapacity();
+        head = (head + shapes.length - 1) % shapes.length;
+        shapes[head] = shape;
+        size++;
+    }
+
+    void addLast(Shape shape) {
+        checkCapacity();
+        shapes[(head + size) % shapes.length] = shape;
+        size++;
+    }
+
+    private void checkCapacity() {
+        // A full row would overwrite its first shape
+        if (size == shapes.length) {
+            throw new IllegalStateException("Shape row full: " + shapes.length + " shapes");
+        }
+    }
+
+    Shape removeFirst() {
+        Shape shape = shapes[head];
+        shapes[head] = null;
+        head = (head + 1) % shapes.length;
+        size--;
+        return shape;
+    }
+
+    Shape removeLast() {
+        int last = (head + size - 1) % shapes.length;
+        Shape shape = shapes[last];
+        shapes[last] = null;
+        size--;
+        return shape;
+    }
+
+    public Shape getFirst() {
+        return get(0);
+    }
+
+    public Shape getLast() {
+        return get(size - 1);
+    }
+
+    public Shape get(int i) {
+        return shapes[(head + i) % shapes.length];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,97 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+
+// Grid of rotating happy faces, where a sad face eventually shows up
+public class SingularModel extends PeriodicLevelModel {
+    // Cells in the X axis
+    private int cellsX;
+    // Cells in the Y axis
+    private int cellsY;
+    // Orientation of the faces (in degrees)
+    private int[][] orientations;
+    // Cell that changes to a sad face
+    private int sadFaceX;
+    private int sadFaceY;
+    // Probability to change one cell to sad face on each update
+    private float prob;
+    // Flag to see if the sad face is shown
+    private boolean sadFaceShown;
+
+    public SingularModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Number of cells in each axis
+        cellsX = getInteger("level_singular_cells_x");
+        cellsY = getInteger("level_singular_cells_y");
+
+        // Choose a random cell to change to sad face
+        sadFaceX = randomInInterval(0, cellsX - 1);
+        sadFaceY = randomInInterval(0, cellsY - 1);
+        sadFaceShown = false;
+
+        // Random initial orientations
+        orientations = new int[cellsX][cellsY];
+        for (int i = 0; i < cellsX; i++) {
+            for (int j = 0; j < cellsY; j++) {
+                setRandomOrientation(i, j);
+            }
+        }
+
+        // Probability to change one cell to sad face
+        prob = randomFloat("level_singular_min_change_face", "level_singular_max_change_face");
+
+        // Start updating the cells
+        startUpdates(randomInt("level_singular_min_delay", "level_singular_max_delay"));
+    }
+
+    @Override
+    protected void updateCells(long time) {
+        // Determine whether to change one cell to sad face
+        if ((!sadFaceShown) && (randomDouble() <= prob)) {
+            // Substitute cell by a sad face, with a random orientation
+            sadFaceShown = true;
+            setRandomOrientation(sadFaceX, sadFaceY);
+        }
+        // Choose a random cell and rotate it
+        else {
+            setRandomOrientation(randomInInterval(0, cellsX - 1), randomInInterval(0, cellsY - 1));
+        }
+    }
+
+    private void setRandomOrientation(int i, int j) {
+        orientations[i][j] = 90 * randomInInterval(0, 3);
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return sadFaceShown;
+    }
+
+    public int getCellsX() {
+        return cellsX;
+    }
+
+    public int getCellsY() {
+        return cellsY;
+    }
+
+    public int getOrientation(int i, int j) {
+        return orientations[i][j];
+    }
+
+    public int getSadFaceX() {
+        return sadFaceX;
+    }
+
+    public int getSadFaceY() {
+        return sadFaceY;
+    }
+
+    public boolean isSadFaceShown() {
+        return sadFaceShown;
+    }
+}
@@ -0,0 +1,124 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.Random;
+
+// Grid of cells painted one at a time, until every color is used
+// Colors are indices from 0 to the number of cells minus 2 (the view chooses the actual colors)
+public class VarietyModel extends PeriodicLevelModel {
+    // Color of the cells not painted yet
+    public static final int NO_COLOR = -1;
+    // Number of cells in the X axis
+    private int cellsX;
+    // Number of cells in the Y axis
+    private int cellsY;
+    // Number of colors
+    private int numColors;
+    // Colors of the cells
+    private int[][] colors;
+    // Number of cells painted with each color
+    private int[] colorCounts;
+    // Colors, the used ones first and then the unused ones, and the position of each color in this order
+    private int[] colorOrder;
+    private int[] colorPositions;
+    // Number of used colors
+    private int numUsedColors;
+    // Probability to change one cell to a new color
+    private float prob;
+
+    public VarietyModel(LevelParameters parameters, Random random) {
+        super(parameters, random);
+    }
+
+    @Override
+    protected void initialize() {
+        // Get number of cells in each axis
+        cellsX = getInteger("level_variety_cells_x");
+        cellsY = getInteger("level_variety_cells_y");
+        numColors = getNumColors(cellsX, cellsY);
+
+        // Initialize cell's colors
+        colors = new int[cellsX][cellsY];
+        for (int i = 0; i < cellsX; i++) {
+            for (int j = 0; j < cellsY; j++) {
+                colors[i][j] = NO_COLOR;
+            }
+        }
+
+        // Every color is unused
+        colorCounts = new int[numColors];
+        colorOrder = new int[numColors];
+        colorPositions = new int[numColors];
+        for (int color = 0; color < numColors; color++) {
+            colorOrder[color] = color;
+            colorPositions[color] = color;
+        }
+        numUsedColors = 0;
+
+        // Probability to change one cell to a new color
+        prob = randomFloat("level_variety_min_change_color", "level_variety_max_change_color");
+
+        // Start updating the cells
+        startUpdates(randomInt("level_variety_min_delay", "level_variety_max_delay"));
+    }
+
+    public static int getNumColors(int cellsX, int cellsY) {
+        // One color less than cells
+        return (cellsX * cellsY) - 1;
+    }
+
+    @Override
+    protected void updateCells(long time) {
+        // Cell to be updated
+        int changeX = randomInInterval(0, cellsX - 1);
+        int changeY = randomInInterval(0, cellsY - 1);
+
+        // Color to be filled
+        int color;
+
+        // Use a new color
+        if ((numUsedColors == 0) || ((randomDouble() < prob) && (numUsedColors < numColors))) {
+            color = colorOrder[randomInInterval(numUsedColors, numColors - 1)];
+        }
+        // Use a used color
+        else {
+            color = colorOrder[randomInInterval(0, numUsedColors - 1)];
+        }
+
+        // Update the color of the cell, and the counts of the new and the previous color
+        int previousColor = colors[changeX][changeY];
+        colors[changeX][changeY] = color;
+        if (colorCounts[color]++ == 0) {
+            moveColor(color, numUsedColors++);
+        }
+        if ((previousColor != NO_COLOR) && (--colorCounts[previousColor] == 0)) {
+            moveColor(previousColor, --numUsedColors);
+        }
+    }
+
+    private void moveColor(int color, int position) {
+        // Swap the color with the one at the given position (the boundary between used and unused colors)
+        int other = colorOrder[position];
+        colorOrder[colorPositions[color]] = other;
+        colorPositions[other] = colorPositions[color];
+        colorOrder[position] = color;
+        colorPositions[color] = position;
+    }
+
+    @Override
+    public boolean isSuccess() {
+        // Success if every color is being used
+        return (numUsedColors == numColors);
+    }
+
+    public int getCellsX() {
+        return cellsX;
+    }
+
+    public int getCellsY() {
+        return cellsY;
+    }
+
+    public int getColor(int i, int j) {
+        return colors[i][j];
+    }
+}
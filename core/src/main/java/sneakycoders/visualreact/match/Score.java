@@ -0,0 +1,46 @@
+package sneakycoders.visualreact.match;
+
+// Score and reaction times of a player during a match
+public class Score {
+    // Points (one more for each success, one less for each fail)
+    private int points;
+    // Reaction times (in nanoseconds) of the successful taps
+    private int reactionTimesCount;
+    private long reactionTimesTotal;
+
+    public Score() {
+        reset();
+    }
+
+    public void reset() {
+        points = 0;
+        reactionTimesCount = 0;
+        reactionTimesTotal = 0;
+    }
+
+    public void addSuccess() {
+        points++;
+    }
+
+    public void addFail() {
+        points--;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void addReactionTime(long reactionTime) {
+        reactionTimesCount++;
+        reactionTimesTotal += reactionTime;
+    }
+
+    public long getAverageReactionTime() {
+        return (reactionTimesCount == 0) ? 0 : (reactionTimesTotal / reactionTimesCount);
+    }
+
+    public static int compare(Score a, Score b) {
+        // Higher points first
+        return Integer.compare(b.points, a.points);
+    }
+}
@@ -0,0 +1,43 @@
+package sneakycoders.visualreact.level;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+// Steps run by the fixed timestep, and the fraction of the next one
+public class FixedTimestepTest {
+    @Test
+    public void runsEveryStepDueAtItsOwnTime() {
+        List<Long> steps = new ArrayList<>();
+        FixedTimestep timestep = new FixedTimestep(10, 100, steps::add);
+
+        // Less than a step
+        assertEquals(0.5f, timestep.advanceTo(105), 1e-6f);
+        assertEquals(Arrays.<Long>asList(), steps);
+
+        // Catch up after a stall, every step at its own time
+        assertEquals(0.5f, timestep.advanceTo(135), 1e-6f);
+        assertEquals(Arrays.asList(110L, 120L, 130L), steps);
+        assertEquals(130, timestep.getSimulationTime());
+
+        // Exactly at a step
+        assertEquals(0, timestep.advanceTo(140), 1e-6f);
+        assertEquals(Arrays.asList(110L, 120L, 130L, 140L), steps);
+    }
+
+    @Test
+    public void doesNotGoBackInTime() {
+        List<Long> steps = new ArrayList<>();
+        FixedTimestep timestep = new FixedTimestep(10, 100, steps::add);
+        timestep.advanceTo(125);
+
+        // The same time or an earlier one runs no step, and there is no negative fraction
+        assertEquals(0.5f, timestep.advanceTo(125), 1e-6f);
+        assertEquals(0, timestep.advanceTo(115), 1e-6f);
+        assertEquals(Arrays.asList(110L, 120L), steps);
+    }
+}
@@ -0,0 +1,51 @@
+package sneakycoders.visualreact.level;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Conversions of the match clock, and the time it spends frozen
+public class MatchClockTest {
+    // Time the clock is kept frozen
+    private static final long FREEZE_MILLIS = 20;
+
+    @Test
+    public void convertsBothWays() {
+        MatchClock clock = new MatchClock();
+        long monotonicTime = System.nanoTime();
+        assertEquals(monotonicTime, clock.toMonotonicTime(clock.toMatchTime(monotonicTime)));
+        assertTrue(clock.now() >= 0);
+    }
+
+    @Test
+    public void frozenTimeDoesNotCount() throws InterruptedException {
+        MatchClock clock = new MatchClock();
+        long monotonicBefore = System.nanoTime();
+        long before = clock.now();
+
+        // Time stands still while frozen (freezing twice keeps the first freeze)
+        clock.freeze();
+        long frozen = clock.now();
+        Thread.sleep(FREEZE_MILLIS);
+        clock.freeze();
+        assertTrue(clock.isFrozen());
+        assertEquals(frozen, clock.now());
+
+        // After thawing (twice, counted once) the clock misses at least the frozen time
+        clock.thaw();
+        clock.thaw();
+        assertFalse(clock.isFrozen());
+        long after = clock.now();
+        long monotonicAfter = System.nanoTime();
+        assertTrue(after >= frozen);
+        assertTrue((after - before) <= ((monotonicAfter - monotonicBefore) - TimeUnit.MILLISECONDS.toNanos(FREEZE_MILLIS)));
+
+        // Conversions skip the frozen time too
+        long monotonicTime = System.nanoTime();
+        assertEquals(monotonicTime, clock.toMonotonicTime(clock.toMatchTime(monotonicTime)));
+    }
+}
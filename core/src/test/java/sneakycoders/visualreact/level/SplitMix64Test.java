@@ -0,0 +1,35 @@
+package sneakycoders.visualreact.level;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+// Sequences of the generator, and the generators of the rounds
+public class SplitMix64Test {
+    @Test
+    public void matchesReferenceSequence() {
+        // First outputs of the reference SplitMix64 with seed 0
+        SplitMix64 random = new SplitMix64(0);
+        assertEquals(0xe220a8397b1dcdafL, random.nextLong());
+        assertEquals(0x6e789e6aa1b965f4L, random.nextLong());
+        assertEquals(0x06c45d188009454fL, random.nextLong());
+    }
+
+    @Test
+    public void roundsAreReproducibleAndIndependent() {
+        long seed = 0x5eedL;
+        for (int round = 0; round < 10; round++) {
+            // Same seed and round, same sequence
+            SplitMix64 first = SplitMix64.forRound(seed, round);
+            SplitMix64 second = SplitMix64.forRound(seed, round);
+            for (int i = 0; i < 100; i++) {
+                assertEquals(first.nextLong(), second.nextLong());
+            }
+
+            // Other rounds and other seeds start other sequences
+            assertNotEquals(SplitMix64.forRound(seed, round).nextLong(), SplitMix64.forRound(seed, round + 1).nextLong());
+            assertNotEquals(SplitMix64.forRound(seed, round).nextLong(), SplitMix64.forRound(seed + 1, round).nextLong());
+        }
+    }
+}
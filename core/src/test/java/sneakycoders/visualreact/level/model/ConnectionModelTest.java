@@ -0,0 +1,158 @@
+package sneakycoders.visualreact.level.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sneakycoders.visualreact.level.SplitMix64;
+import sneakycoders.visualreact.level.model.ConnectionModel.PathType;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Paths and changed cells kept one update at a time against the grid walked from scratch
+public class ConnectionModelTest {
+    // Arms of a cell (bit flags)
+    private static final int LEFT = 1;
+    private static final int RIGHT = 2;
+    private static final int TOP = 4;
+    private static final int BOTTOM = 8;
+
+    private static LevelParameters parameters(boolean multi) {
+        return new TestParameters()
+                .setFraction("level_connection_multi_probability", multi ? 1 : 0)
+                .setInteger("level_connection_cells_x", 15)
+                .setInteger("level_connection_cells_y", 10)
+                .setInteger("level_connection_min_delay", 75)
+                .setInteger("level_connection_max_delay", 200)
+                .setFraction("level_connection_min_update_random", 0.8f)
+                .setFraction("level_connection_max_update_random", 0.9f)
+                .setInteger("level_connection_multi_cells_x", 20)
+                .setInteger("level_connection_multi_cells_y", 12)
+                .setInteger("level_connection_multi_pairs", 3)
+                .setInteger("level_connection_multi_min_delay", 10)
+                .setInteger("level_connection_multi_max_delay", 25)
+                .setFraction("level_connection_multi_min_update_random", 0.4f)
+                .setFraction("level_connection_multi_max_update_random", 0.6f);
+    }
+
+    @Test
+    public void singlePairMatchesWalk() {
+        check(false);
+    }
+
+    @Test
+    public void severalPairsMatchWalk() {
+        check(true);
+    }
+
+    private static void check(boolean multi) {
+        int successes = 0;
+        for (long seed = 0; seed < 20; seed++) {
+            ConnectionModel model = new ConnectionModel(parameters(multi), new SplitMix64(seed));
+            model.start(1080, 960, 0);
+            assertEquals(multi ? 3 : 1, model.getNumPairs());
+            int[] path = new int[model.getNumCells()];
+            PathType[] previous = pathTypes(model);
+            model.clearChangedCells();
+
+            for (int update = 0; update < 1000; update++) {
+                model.advanceTo(model.getNextUpdateTime());
+                String step = "seed " + seed + ", update " + update;
+
+                // The changed cells are the ones whose path type differs, reported once
+                PathType[] current = pathTypes(model);
+                boolean[] reported = new boolean[current.length];
+                for (int i = 0; i < model.getNumChangedCells(); i++) {
+                    int cell = model.getChangedCell(i);
+                    assertFalse(step, reported[cell]);
+                    reported[cell] = true;
+                }
+                for (int cell = 0; cell < current.length; cell++) {
+                    assertEquals(step + ", cell " + cell, current[cell] != previous[cell], reported[cell]);
+                }
+                model.clearChangedCells();
+                assertEquals(step, 0, model.getNumChangedCells());
+                previous = current;
+
+                // The paths from the left extremes, and the pairs they connect
+                boolean connected = false;
+                for (int pair = 0; pair < model.getNumPairs(); pair++) {
+                    List<Integer> walk = new ArrayList<>();
+                    boolean leavesByRightExtreme = walk(model, pair, walk);
+                    int length = model.followPath(true, pair, path);
+                    int[] expected = new int[walk.size()];
+                    for (int i = 0; i < expected.length; i++) {
+                        expected[i] = walk.get(i);
+                    }
+                    int[] actual = new int[length];
+                    System.arraycopy(path, 0, actual, 0, length);
+                    assertArrayEquals(step + ", pair " + pair, expected, actual);
+
+                    // A single pair is connected when the path stops at the cell of the right extreme,
+                    // several pairs when the path leaves the grid through the right extreme
+                    int rightExtreme = (model.getCellsX() - 1) * model.getCellsY() + model.getRightExtremeY(pair);
+                    boolean pairConnected = multi ? leavesByRightExtreme : ((length != 0) && (actual[length - 1] == rightExtreme));
+                    assertEquals(step + ", pair " + pair, pairConnected, model.isConnected(pair));
+                    connected |= pairConnected;
+                }
+                assertEquals(step, connected, model.isSuccess());
+                successes += model.isSuccess() ? 1 : 0;
+            }
+        }
+
+        // The success condition is reached in some of the updates
+        assertTrue(successes > 0);
+    }
+
+    private static PathType[] pathTypes(ConnectionModel model) {
+        PathType[] pathTypes = new PathType[model.getNumCells()];
+        for (int cell = 0; cell < pathTypes.length; cell++) {
+            pathTypes[cell] = model.getPathType(model.getCellX(cell), model.getCellY(cell));
+        }
+        return pathTypes;
+    }
+
+    private static boolean walk(ConnectionModel model, int pair, List<Integer> walk) {
+        // Enter the grid by the left extreme, and follow the arms of the cells until the path breaks or leaves the grid
+        int cellsX = model.getCellsX();
+        int cellsY = model.getCellsY();
+        int x = 0;
+        int y = model.getLeftExtremeY(pair);
+        int entry = LEFT;
+        while ((x >= 0) && (x < cellsX) && (y >= 0) && (y < cellsY)) {
+            int arms = arms(model.getPathType(x, y));
+            if ((arms & entry) == 0) {
+                return false;
+            }
+            walk.add(x * cellsY + y);
+            int exit = arms & ~entry;
+            x += (exit == LEFT) ? -1 : ((exit == RIGHT) ? 1 : 0);
+            y += (exit == TOP) ? -1 : ((exit == BOTTOM) ? 1 : 0);
+            entry = (exit == LEFT) ? RIGHT : ((exit == RIGHT) ? LEFT : ((exit == TOP) ? BOTTOM : TOP));
+        }
+
+        // Whether it leaves the grid by the right extreme
+        return (x == cellsX) && (y == model.getRightExtremeY(pair));
+    }
+
+    private static int arms(PathType pathType) {
+        switch (pathType) {
+            case Horizontal:
+                return LEFT | RIGHT;
+            case Vertical:
+                return TOP | BOTTOM;
+            case BottomLeft:
+                return BOTTOM | LEFT;
+            case BottomRight:
+                return BOTTOM | RIGHT;
+            case TopLeft:
+                return TOP | LEFT;
+            default:
+                return TOP | RIGHT;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package sneakycoders.visualreact.level.model;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.level.SplitMix64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Ticks of the countdown at absolute deadlines, and taps judged by their time
+public class CountdownModelTest {
+    // Start of the countdown, delay between ticks, and value from which it is hidden
+    private static final int START = 6;
+    private static final long STEP_TIME = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int HIDE = 3;
+    // Time when the level starts
+    private static final long START_TIME = TimeUnit.SECONDS.toNanos(2);
+
+    private static CountdownModel start() {
+        LevelParameters parameters = new TestParameters()
+                .setInteger("level_countdown_min_start", START)
+                .setInteger("level_countdown_max_start", START)
+                .setInteger("level_countdown_min_delay", (int) TimeUnit.NANOSECONDS.toMillis(STEP_TIME))
+                .setInteger("level_countdown_max_delay", (int) TimeUnit.NANOSECONDS.toMillis(STEP_TIME))
+                .setInteger("level_countdown_min_hide", HIDE)
+                .setInteger("level_countdown_max_hide_offset", START - HIDE);
+        CountdownModel model = new CountdownModel(parameters, new SplitMix64(0));
+        model.start(1080, 960, START_TIME);
+        return model;
+    }
+
+    @Test
+    public void ticksAtDeadlines() {
+        CountdownModel model = start();
+        assertEquals(START_TIME + START * STEP_TIME, model.getEndTime());
+        for (int tick = 0; tick < START; tick++) {
+            // Each tick is due at its deadline, even when the update is late
+            long deadline = START_TIME + tick * STEP_TIME;
+            assertEquals(deadline, model.getNextUpdateTime());
+            model.advanceTo(deadline + (STEP_TIME / 3));
+            assertEquals(deadline, model.getLastTickTime());
+            assertEquals(START - tick, model.getShownCounter());
+            assertEquals((START - tick) >= HIDE, model.isCounterVisible());
+            assertFalse(model.hasStimulusOnset());
+        }
+
+        // The onset is the end of the countdown, not the time of the late update
+        model.advanceTo(model.getEndTime() + STEP_TIME);
+        assertEquals(model.getEndTime(), model.getStimulusOnset());
+        assertEquals(LevelModel.NO_UPDATE, model.getNextUpdateTime());
+        assertTrue(model.isSuccess());
+    }
+
+    @Test
+    public void catchesUpAfterStall() {
+        CountdownModel model = start();
+
+        // A single late update runs every tick due
+        model.advanceTo(START_TIME + 3 * STEP_TIME + 1);
+        assertEquals(START_TIME + 3 * STEP_TIME, model.getLastTickTime());
+        assertEquals(START - 3, model.getShownCounter());
+        assertEquals(START_TIME + 4 * STEP_TIME, model.getNextUpdateTime());
+    }
+
+    @Test
+    public void judgesTapsByTheirTime() {
+        // Before the end, even if the tap is judged late
+        CountdownModel model = start();
+        model.advanceTo(model.getEndTime() - 1);
+        assertFalse(model.onPlayerTap(model.getEndTime() - 1));
+        assertFalse(model.hasStimulusOnset());
+
+        // At the end, even before the last tick runs
+        model = start();
+        model.advanceTo(model.getEndTime() - 1);
+        assertTrue(model.onPlayerTap(model.getEndTime()));
+        assertEquals(model.getEndTime(), model.getStimulusOnset());
+    }
+}
@@ -0,0 +1,35 @@
+package sneakycoders.visualreact.level.model;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Search of the time a condition that depends on time became true
+public class LevelModelTest {
+    // Precision of the search
+    private static final long PRECISION = TimeUnit.MICROSECONDS.toNanos(10);
+
+    @Test
+    public void findsTransitionWithinPrecision() {
+        long startTime = TimeUnit.SECONDS.toNanos(1);
+        long time = startTime + TimeUnit.SECONDS.toNanos(3);
+        long[] transitions = {
+                time, time - 1, time - TimeUnit.MILLISECONDS.toNanos(5), time - TimeUnit.MILLISECONDS.toNanos(7) - 123,
+                startTime + TimeUnit.MILLISECONDS.toNanos(1) + 456, startTime + 1};
+        for (final long transition : transitions) {
+            long onset = LevelModel.findStimulusOnset(t -> t >= transition, time, startTime);
+            assertTrue("transition " + transition + ", onset " + onset, (onset >= transition) && (onset <= (transition + PRECISION)));
+        }
+    }
+
+    @Test
+    public void conditionSinceStartGivesStartTime() {
+        long startTime = TimeUnit.SECONDS.toNanos(1);
+        long time = startTime + TimeUnit.MILLISECONDS.toNanos(12) + 345;
+        assertEquals(startTime, LevelModel.findStimulusOnset(t -> true, time, startTime));
+        assertEquals(startTime, LevelModel.findStimulusOnset(t -> t >= (startTime - 1), time, startTime));
+    }
+}
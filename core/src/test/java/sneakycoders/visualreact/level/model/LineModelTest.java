@@ -0,0 +1,112 @@
+package sneakycoders.visualreact.level.model;
+
+import org.junit.Test;
+
+import sneakycoders.visualreact.level.SplitMix64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Runs joined one cell at a time against runs found by scanning the whole grid
+public class LineModelTest {
+    // Directions of the runs (row and column steps)
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    // Length of a winning run on the large grid used in the tests
+    private static final int LARGE_RUN_LENGTH = 4;
+
+    private static LevelParameters parameters(boolean largeGrid) {
+        return new TestParameters()
+                .setFraction("level_line_large_grid_probability", largeGrid ? 1 : 0)
+                .setInteger("level_line_cells", 3)
+                .setInteger("level_line_min_delay", 750)
+                .setInteger("level_line_max_delay", 1500)
+                .setInteger("level_line_large_cells", 8)
+                .setInteger("level_line_large_run_length", LARGE_RUN_LENGTH)
+                .setInteger("level_line_large_min_delay", 25)
+                .setInteger("level_line_large_max_delay", 50);
+    }
+
+    @Test
+    public void classicGridMatchesScan() {
+        checkSuccess(false);
+        checkHighlight(false);
+    }
+
+    @Test
+    public void largeGridMatchesScan() {
+        checkSuccess(true);
+        checkHighlight(true);
+    }
+
+    private static void checkSuccess(boolean largeGrid) {
+        for (long seed = 0; seed < 50; seed++) {
+            LineModel model = new LineModel(parameters(largeGrid), new SplitMix64(seed));
+            model.start(1080, 960, 0);
+            int runLength = largeGrid ? LARGE_RUN_LENGTH : model.getCells();
+
+            // Fill the grid three times (it is emptied when it is full)
+            int nCells = model.getCells() * model.getCells();
+            for (int update = 0; update < (3 * (nCells + 1)); update++) {
+                model.advanceTo(model.getNextUpdateTime());
+                assertEquals("seed " + seed + ", update " + update, scan(model, runLength, null) > 0, model.isSuccess());
+            }
+        }
+    }
+
+    private static void checkHighlight(boolean largeGrid) {
+        for (long seed = 0; seed < 50; seed++) {
+            LineModel model = new LineModel(parameters(largeGrid), new SplitMix64(seed));
+            model.start(1080, 960, 0);
+            int runLength = largeGrid ? LARGE_RUN_LENGTH : model.getCells();
+
+            // Tap on the first winning run
+            long time = 0;
+            while (!model.isSuccess()) {
+                time = model.getNextUpdateTime();
+                model.advanceTo(time);
+            }
+            assertTrue(model.onPlayerTap(time));
+
+            // Highlighted cells are the ones in winning runs
+            boolean[][] inRuns = new boolean[model.getCells()][model.getCells()];
+            scan(model, runLength, inRuns);
+            for (int row = 0; row < model.getCells(); row++) {
+                for (int col = 0; col < model.getCells(); col++) {
+                    assertEquals("seed " + seed + ", cell " + row + "," + col, inRuns[row][col], model.isHighlighted(row, col));
+                }
+            }
+        }
+    }
+
+    private static int scan(LineModel model, int runLength, boolean[][] inRuns) {
+        // Count the winning runs from the cell where each run starts, and mark their cells
+        int nCells = model.getCells();
+        int runs = 0;
+        for (int[] direction : DIRECTIONS) {
+            for (int row = 0; row < nCells; row++) {
+                for (int col = 0; col < nCells; col++) {
+                    if (!model.isFilled(row, col) || sameType(model, row, col, row - direction[0], col - direction[1])) {
+                        continue;
+                    }
+                    int length = 1;
+                    while (sameType(model, row, col, row + length * direction[0], col + length * direction[1])) {
+                        length++;
+                    }
+                    if (length >= runLength) {
+                        runs++;
+                        for (int i = 0; (inRuns != null) && (i < length); i++) {
+                            inRuns[row + i * direction[0]][col + i * direction[1]] = true;
+                        }
+                    }
+                }
+            }
+        }
+        return runs;
+    }
+
+    private static boolean sameType(LineModel model, int row, int col, int otherRow, int otherCol) {
+        int nCells = model.getCells();
+        return (otherRow >= 0) && (otherRow < nCells) && (otherCol >= 0) && (otherCol < nCells)
+                && model.isFilled(otherRow, otherCol) && (model.getCellType(otherRow, otherCol) == model.getCellType(row, col));
+    }
+}
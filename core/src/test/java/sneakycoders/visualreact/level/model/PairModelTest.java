@@ -0,0 +1,92 @@
+package sneakycoders.visualreact.level.model;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.level.SplitMix64;
+import sneakycoders.visualreact.level.model.PairModel.Shape;
+import sneakycoders.visualreact.level.model.PairModel.ShapeType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Rows and visible shapes kept one step at a time against the shapes checked one by one
+public class PairModelTest {
+    // Simulation steps per second
+    private static final int STEPS_PER_SECOND = 120;
+    // Time played on each round
+    private static final long PLAY_TIME = TimeUnit.SECONDS.toNanos(30);
+
+    private static LevelParameters parameters() {
+        return new TestParameters()
+                .setInteger("level_pair_shapes_per_row", 4)
+                .setFraction("level_pair_vertical_margin", 0.075f)
+                .setFraction("level_pair_inside_padding", 0.15f)
+                .setFraction("level_pair_rectangle_width", 0.75f)
+                .setFraction("level_pair_cross_size", 0.075f)
+                .setFraction("level_pair_arrow_head_height", 0.4f)
+                .setFraction("level_pair_moon_inner_width", 0.375f)
+                .setInteger("level_pair_minimum_travel_time", 6000)
+                .setInteger("level_pair_maximum_travel_time", 15000)
+                .setInteger("level_pair_minimum_time_before_random_shapes", 4000)
+                .setInteger("level_pair_maximum_time_before_random_shapes", 16000)
+                .setInteger("level_pair_steps_per_second", STEPS_PER_SECOND);
+    }
+
+    @Test
+    public void visibleShapesMatchRecount() {
+        long stepTime = TimeUnit.SECONDS.toNanos(1) / STEPS_PER_SECOND;
+        int successes = 0;
+        for (long seed = 0; seed < 20; seed++) {
+            PairModel model = new PairModel(parameters(), new SplitMix64(seed));
+            model.start(1080, 960, 0);
+            for (long time = stepTime; time <= PLAY_TIME; time += stepTime) {
+                model.advanceTo(time);
+                String step = "seed " + seed + ", time " + time;
+
+                // Each shape is in one row only, in order from left to right
+                Set<Shape> shapes = Collections.newSetFromMap(new IdentityHashMap<Shape, Boolean>());
+                assertRow(model, model.getTopShapes(), shapes, step);
+                assertRow(model, model.getBottomShapes(), shapes, step);
+
+                // Types with more than one visible shape
+                int[] visible = new int[ShapeType.values().length];
+                for (Shape shape : shapes) {
+                    assertEquals(step, !model.isOutOfScreen(shape), shape.isVisible());
+                    visible[shape.getShapeType().ordinal()] += shape.isVisible() ? 1 : 0;
+                }
+                boolean duplicates = false;
+                for (ShapeType shapeType : ShapeType.values()) {
+                    boolean duplicate = visible[shapeType.ordinal()] > 1;
+                    assertEquals(step, duplicate, model.getDuplicateStart(shapeType) != PairModel.NO_DUPLICATE);
+                    duplicates |= duplicate;
+                }
+                for (Shape shape : shapes) {
+                    assertEquals(step, shape.isVisible() && (visible[shape.getShapeType().ordinal()] > 1), model.isDuplicate(shape));
+                }
+                assertEquals(step, duplicates, model.isSuccess());
+                successes += model.isSuccess() ? 1 : 0;
+            }
+        }
+
+        // The success condition is reached in some of the steps
+        assertTrue(successes > 0);
+    }
+
+    private static void assertRow(PairModel model, ShapeRow row, Set<Shape> shapes, String step) {
+        // New shapes start one cell away from the screen, so a gap is up to one step longer than a cell
+        for (int i = 0; i < row.size(); i++) {
+            assertTrue(step, shapes.add(row.get(i)));
+            if (i > 0) {
+                float gap = row.get(i).getX() - row.get(i - 1).getX();
+                assertTrue(step, (gap > (model.getCellWidth() - 0.5f)) && (gap < (model.getCellWidth() + model.getStepDistance() + 0.5f)));
+            }
+        }
+        assertTrue(step, row.getFirst() == row.get(0));
+        assertTrue(step, row.getLast() == row.get(row.size() - 1));
+    }
+}
@@ -0,0 +1,91 @@
+package sneakycoders.visualreact.level.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import sneakycoders.visualreact.level.SplitMix64;
+
+import static org.junit.Assert.assertEquals;
+
+// Components updated one cell at a time against components found from scratch
+public class PathComponentsTest {
+    // Arms of the path types of the cells
+    private static final int[] ARMS = {
+            PathComponents.LEFT | PathComponents.RIGHT, PathComponents.TOP | PathComponents.BOTTOM,
+            PathComponents.BOTTOM | PathComponents.LEFT, PathComponents.BOTTOM | PathComponents.RIGHT,
+            PathComponents.TOP | PathComponents.LEFT, PathComponents.TOP | PathComponents.RIGHT};
+    private static final int CELLS_X = 7;
+    private static final int CELLS_Y = 5;
+
+    @Test
+    public void updatesMatchComponentsFromScratch() {
+        for (long seed = 0; seed < 50; seed++) {
+            Random random = new SplitMix64(seed);
+
+            // Random grid
+            int[] arms = new int[CELLS_X * CELLS_Y];
+            PathComponents components = new PathComponents(CELLS_X, CELLS_Y);
+            for (int cell = 0; cell < arms.length; cell++) {
+                arms[cell] = ARMS[random.nextInt(ARMS.length)];
+                components.setArms(cell, arms[cell]);
+            }
+            components.labelAll();
+            assertComponents(components, arms);
+
+            // Change one cell at a time (sometimes to the same arms)
+            for (int step = 0; step < 200; step++) {
+                int cell = random.nextInt(arms.length);
+                arms[cell] = ARMS[random.nextInt(ARMS.length)];
+                components.update(cell, arms[cell]);
+                assertComponents(components, arms);
+            }
+        }
+    }
+
+    private static void assertComponents(PathComponents components, int[] arms) {
+        // Every pair of cells is connected if and only if a search from one of them reaches the other
+        int[] reference = label(arms);
+        for (int cell = 0; cell < arms.length; cell++) {
+            for (int other = 0; other < arms.length; other++) {
+                assertEquals("cells " + cell + " and " + other, reference[cell] == reference[other],
+                        components.connects(cell, arms[cell], other, arms[other]));
+            }
+        }
+    }
+
+    private static int[] label(int[] arms) {
+        // Depth first search from every cell not labeled yet
+        int[] labels = new int[arms.length];
+        int[] pending = new int[arms.length];
+        Arrays.fill(labels, -1);
+        for (int start = 0; start < arms.length; start++) {
+            if (labels[start] != -1) {
+                continue;
+            }
+            int numPending = 0;
+            labels[start] = start;
+            pending[numPending++] = start;
+            while (numPending > 0) {
+                int cell = pending[--numPending];
+                int x = cell / CELLS_Y;
+                int y = cell % CELLS_Y;
+                int[][] neighbors = {
+                        {x - 1, y, PathComponents.LEFT, PathComponents.RIGHT}, {x + 1, y, PathComponents.RIGHT, PathComponents.LEFT},
+                        {x, y - 1, PathComponents.TOP, PathComponents.BOTTOM}, {x, y + 1, PathComponents.BOTTOM, PathComponents.TOP}};
+                for (int[] neighbor : neighbors) {
+                    if ((neighbor[0] < 0) || (neighbor[0] >= CELLS_X) || (neighbor[1] < 0) || (neighbor[1] >= CELLS_Y)) {
+                        continue;
+                    }
+                    int other = neighbor[0] * CELLS_Y + neighbor[1];
+                    if (((arms[cell] & neighbor[2]) != 0) && ((arms[other] & neighbor[3]) != 0) && (labels[other] == -1)) {
+                        labels[other] = start;
+                        pending[numPending++] = other;
+                    }
+                }
+            }
+        }
+        return labels;
+    }
+}
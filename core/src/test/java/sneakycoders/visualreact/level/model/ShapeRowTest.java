@@ -0,0 +1,68 @@
+package sneakycoders.visualreact.level.model;
+
+import org.junit.Test;
+
+import sneakycoders.visualreact.level.model.PairModel.Shape;
+import sneakycoders.visualreact.level.model.PairModel.ShapeType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+// Ring buffer of shapes filled and emptied by both ends
+public class ShapeRowTest {
+    private static final int CAPACITY = 4;
+
+    @Test
+    public void keepsOrderAcrossTheEndOfTheBuffer() {
+        ShapeRow row = new ShapeRow(CAPACITY);
+        Shape[] shapes = shapes(CAPACITY + 2);
+
+        // Move the head around the buffer, then fill it from both ends
+        row.addLast(shapes[0]);
+        row.addLast(shapes[1]);
+        assertSame(shapes[0], row.removeFirst());
+        row.addLast(shapes[2]);
+        row.addLast(shapes[3]);
+        row.addFirst(shapes[4]);
+        assertEquals(CAPACITY, row.size());
+        assertSame(shapes[4], row.getFirst());
+        assertSame(shapes[1], row.get(1));
+        assertSame(shapes[2], row.get(2));
+        assertSame(shapes[3], row.getLast());
+
+        // Empty it from both ends
+        assertSame(shapes[3], row.removeLast());
+        assertSame(shapes[4], row.removeFirst());
+        assertSame(shapes[1], row.removeFirst());
+        assertSame(shapes[2], row.removeLast());
+        assertEquals(0, row.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addLastToFullRowThrows() {
+        ShapeRow row = full();
+        row.addLast(new Shape(ShapeType.Circle, CAPACITY));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addFirstToFullRowThrows() {
+        ShapeRow row = full();
+        row.addFirst(new Shape(ShapeType.Circle, CAPACITY));
+    }
+
+    private static ShapeRow full() {
+        ShapeRow row = new ShapeRow(CAPACITY);
+        for (Shape shape : shapes(CAPACITY)) {
+            row.addLast(shape);
+        }
+        return row;
+    }
+
+    private static Shape[] shapes(int n) {
+        Shape[] shapes = new Shape[n];
+        for (int i = 0; i < n; i++) {
+            shapes[i] = new Shape(ShapeType.values()[i % ShapeType.values().length], i);
+        }
+        return shapes;
+    }
+}
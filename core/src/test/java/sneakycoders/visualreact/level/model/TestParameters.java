@@ -0,0 +1,35 @@
+package sneakycoders.visualreact.level.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertNotNull;
+
+// Constants of the levels for the tests, each test sets the ones its level reads
+class TestParameters implements LevelParameters {
+    // Values by resource name
+    private final Map<String, Integer> integers = new HashMap<>();
+    private final Map<String, Float> fractions = new HashMap<>();
+
+    TestParameters setInteger(String name, int value) {
+        integers.put(name, value);
+        return this;
+    }
+
+    TestParameters setFraction(String name, float value) {
+        fractions.put(name, value);
+        return this;
+    }
+
+    @Override
+    public int getInteger(String name) {
+        assertNotNull(name, integers.get(name));
+        return integers.get(name);
+    }
+
+    @Override
+    public float getFraction(String name) {
+        assertNotNull(name, fractions.get(name));
+        return fractions.get(name);
+    }
+}
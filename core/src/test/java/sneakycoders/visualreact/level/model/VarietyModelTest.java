@@ -0,0 +1,56 @@
+package sneakycoders.visualreact.level.model;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import sneakycoders.visualreact.level.SplitMix64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Colors counted one update at a time against the colors counted over the whole grid
+public class VarietyModelTest {
+    private static LevelParameters parameters(int cellsX, int cellsY) {
+        return new TestParameters()
+                .setInteger("level_variety_cells_x", cellsX)
+                .setInteger("level_variety_cells_y", cellsY)
+                .setFraction("level_variety_min_change_color", 0.65f)
+                .setFraction("level_variety_max_change_color", 0.9f)
+                .setInteger("level_variety_min_delay", 750)
+                .setInteger("level_variety_max_delay", 1500);
+    }
+
+    @Test
+    public void usedColorsMatchRecount() {
+        int[][] grids = {{3, 2}, {2, 2}, {4, 3}};
+        int successes = 0;
+        for (int[] grid : grids) {
+            int numColors = VarietyModel.getNumColors(grid[0], grid[1]);
+            for (long seed = 0; seed < 50; seed++) {
+                VarietyModel model = new VarietyModel(parameters(grid[0], grid[1]), new SplitMix64(seed));
+                model.start(1080, 960, 0);
+                for (int update = 0; update < 500; update++) {
+                    model.advanceTo(model.getNextUpdateTime());
+
+                    // Every color of the palette on the grid at once
+                    BitSet used = new BitSet(numColors);
+                    for (int i = 0; i < model.getCellsX(); i++) {
+                        for (int j = 0; j < model.getCellsY(); j++) {
+                            int color = model.getColor(i, j);
+                            assertTrue((color == VarietyModel.NO_COLOR) || ((color >= 0) && (color < numColors)));
+                            if (color != VarietyModel.NO_COLOR) {
+                                used.set(color);
+                            }
+                        }
+                    }
+                    assertEquals("seed " + seed + ", update " + update, used.cardinality() == numColors, model.isSuccess());
+                    successes += model.isSuccess() ? 1 : 0;
+                }
+            }
+        }
+
+        // The success condition is reached in some of the updates
+        assertTrue(successes > 0);
+    }
+}
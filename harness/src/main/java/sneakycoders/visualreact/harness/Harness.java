@@ -0,0 +1,76 @@
+package sneakycoders.visualreact.harness;
+
+import java.io.File;
+import java.util.List;
+
+import sneakycoders.visualreact.level.model.LevelModel;
+
+// Runs rounds of every level headless and prints statistics of each one
+// Usage: Harness [rounds per level] [width] [height] [seed]
+public class Harness {
+    // Default arguments
+    private static final int DEFAULT_ROUNDS = 1000;
+    private static final int DEFAULT_WIDTH = 1080;
+    private static final int DEFAULT_HEIGHT = 960;
+    private static final long DEFAULT_SEED = 0;
+    // Resources of the app (relative to the root of the project)
+    private static final String RESOURCES_DIRECTORY = "app/src/main/res/values";
+
+    public static void main(String[] args) throws Exception {
+        // Arguments
+        int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+        int width = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_WIDTH;
+        int height = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_HEIGHT;
+        long seed = (args.length > 3) ? Long.parseLong(args[3]) : DEFAULT_SEED;
+
+        // Constants and levels of the app
+        XmlParameters parameters = new XmlParameters(
+                new File(RESOURCES_DIRECTORY, "ingame.xml"),
+                new File(RESOURCES_DIRECTORY, "arrays.xml"));
+        List<String> levelIds = parameters.getStringArray("levels");
+        Simulation simulation = new Simulation(parameters, width, height);
+
+        // Play every level, each round with its own generator
+        System.out.printf("%-12s %8s %8s %9s %12s %12s%n", "level", "rounds", "success", "timeouts", "onset (ms)", "reaction (ms)");
+        long start = System.nanoTime();
+        int round = 0;
+        for (String levelId : levelIds) {
+            int successes = 0;
+            int timeouts = 0;
+            int onsets = 0;
+            double onsetSum = 0;
+            double reactionSum = 0;
+            int duplicates = 0;
+            double duplicateSum = 0;
+            for (int i = 0; i < rounds; i++) {
+                Simulation.Result result = simulation.run(levelId, seed, round++);
+                if (result.success) {
+                    successes++;
+                }
+                if (result.timeout) {
+                    timeouts++;
+                }
+                if (result.onset != LevelModel.NO_STIMULUS_ONSET) {
+                    onsets++;
+                    onsetSum += result.onset;
+                    reactionSum += result.tapTime - result.onset;
+                }
+                for (Simulation.Duplicate duplicate : result.duplicates) {
+                    duplicates++;
+                    duplicateSum += duplicate.end - duplicate.start;
+                }
+            }
+            System.out.printf("%-12s %8d %7.1f%% %9d %12.1f %12.1f%n", levelId, rounds, 100.0 * successes / rounds, timeouts,
+                    (onsets > 0) ? (onsetSum / onsets / 1e6) : Double.NaN, (onsets > 0) ? (reactionSum / onsets / 1e6) : Double.NaN);
+
+            // Intervals with two equal shapes visible (until the tap at most)
+            if (duplicates > 0) {
+                System.out.printf("%-12s %d duplicates visible for %.1f ms on average%n", "", duplicates, duplicateSum / duplicates / 1e6);
+            }
+        }
+
+        // Throughput
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d rounds in %.2f s (%.0f rounds/s)%n", round, elapsed, round / elapsed);
+    }
+}
@@ -0,0 +1,150 @@
+package sneakycoders.visualreact.harness;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import sneakycoders.visualreact.level.SplitMix64;
+import sneakycoders.visualreact.level.model.LevelModel;
+import sneakycoders.visualreact.level.model.LevelParameters;
+import sneakycoders.visualreact.level.model.PairModel;
+import sneakycoders.visualreact.level.model.PairModel.ShapeType;
+
+// Plays rounds of the levels on a virtual screen and a virtual clock, with a simulated player
+public class Simulation {
+    // Model class format
+    private static final String MODEL_CLASS_FORMAT = LevelModel.class.getPackage().getName() + ".{0}Model";
+    // Time between frames (60 Hz)
+    private static final long FRAME_TIME = TimeUnit.SECONDS.toNanos(1) / 60;
+    // Time after which the player gives up and taps
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(30);
+    // Reaction time of the player (normal distribution, in nanoseconds)
+    private static final long REACTION_MEAN = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long REACTION_DEVIATION = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long REACTION_MIN = TimeUnit.MILLISECONDS.toNanos(100);
+    // Constants of the levels
+    private final LevelParameters parameters;
+    // Size of the virtual screen
+    private final float width;
+    private final float height;
+
+    public Simulation(LevelParameters parameters, float width, float height) {
+        this.parameters = parameters;
+        this.width = width;
+        this.height = height;
+    }
+
+    public LevelModel createModel(String levelId, Random random) {
+        // Use reflection to create the model of the level, as the app does with the levels
+        try {
+            String name = Character.toUpperCase(levelId.charAt(0)) + levelId.substring(1);
+            return (LevelModel) Class.forName(MessageFormat.format(MODEL_CLASS_FORMAT, name))
+                    .getConstructor(LevelParameters.class, Random.class)
+                    .newInstance(parameters, random);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unknown level: " + levelId, e);
+        }
+    }
+
+    public Result run(String levelId, long seed, int round) {
+        // Same generator as the level in a match with the same seed (the game logic draws first)
+        Random roundRandom = SplitMix64.forRound(seed, round);
+        LevelModel model = createModel(levelId, new SplitMix64(roundRandom.nextLong()));
+        Random playerRandom = new SplitMix64(roundRandom.nextLong());
+
+        // Record every interval in which two equal shapes are visible
+        List<Duplicate> duplicates = new ArrayList<>();
+        if (model instanceof PairModel) {
+            ((PairModel) model).setDuplicateListener(
+                    (shapeType, start, end) -> duplicates.add(new Duplicate(shapeType, start, end)));
+        }
+
+        // Start the level
+        long time = 0;
+        model.start(width, height, time);
+        model.advanceTo(time);
+        model.onFramePresented(time);
+
+        // Advance until the player taps
+        long tapTime = TIMEOUT;
+        boolean reacted = false;
+        while (true) {
+            // The player reacts to the first stimulus it sees
+            // Levels whose state is a function of time only find the onset on a tap, their stimulus is seen on the frame
+            if ((!reacted) && (model.hasStimulusOnset() || model.isSuccess())) {
+                reacted = true;
+                long seenTime = model.hasStimulusOnset() ? model.getStimulusOnset() : time;
+                tapTime = Math.min(tapTime, seenTime + reactionTime(playerRandom));
+            }
+
+            // Continuous models are advanced on every frame, the rest when their next update is due
+            long next = model.isContinuous() ? (time + FRAME_TIME) : model.getNextUpdateTime();
+            if (next >= tapTime) {
+                break;
+            }
+            time = next;
+            model.advanceTo(time);
+
+            // The state is on the screen on the next frame
+            model.onFramePresented(((time + FRAME_TIME - 1) / FRAME_TIME) * FRAME_TIME);
+        }
+
+        // Judge the tap
+        boolean success = model.onPlayerTap(tapTime);
+        long onset = model.hasStimulusOnset() ? model.getStimulusOnset() : LevelModel.NO_STIMULUS_ONSET;
+
+        // The duplicates still visible end with the tap
+        if (model instanceof PairModel) {
+            for (ShapeType shapeType : ShapeType.values()) {
+                long start = ((PairModel) model).getDuplicateStart(shapeType);
+                if (start != PairModel.NO_DUPLICATE) {
+                    duplicates.add(new Duplicate(shapeType, start, tapTime));
+                }
+            }
+        }
+
+        return new Result(success, !reacted, onset, tapTime, duplicates);
+    }
+
+    private static long reactionTime(Random random) {
+        return Math.max(REACTION_MIN, REACTION_MEAN + (long) (random.nextGaussian() * REACTION_DEVIATION));
+    }
+
+    // Outcome of a round
+    public static class Result {
+        // Flag to see if the tap was a success
+        public final boolean success;
+        // Flag to see if the player tapped without a stimulus
+        public final boolean timeout;
+        // Time of the stimulus onset (or NO_STIMULUS_ONSET) and of the tap
+        public final long onset;
+        public final long tapTime;
+        // Intervals in which two equal shapes were visible (LevelPair only)
+        public final List<Duplicate> duplicates;
+
+        Result(boolean success, boolean timeout, long onset, long tapTime, List<Duplicate> duplicates) {
+            this.success = success;
+            this.timeout = timeout;
+            this.onset = onset;
+            this.tapTime = tapTime;
+            this.duplicates = duplicates;
+        }
+    }
+
+    // Interval in which two shapes of the same type were visible, from the step they both were to the step one was not
+    public static class Duplicate {
+        // Type of the shapes
+        public final ShapeType shapeType;
+        // Start and end of the interval
+        public final long start;
+        public final long end;
+
+        Duplicate(ShapeType shapeType, long start, long end) {
+            this.shapeType = shapeType;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
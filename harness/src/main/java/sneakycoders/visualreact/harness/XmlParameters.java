@@ -0,0 +1,89 @@
+package sneakycoders.visualreact.harness;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import sneakycoders.visualreact.level.model.LevelParameters;
+
+// Constants of the levels read from the resource files of the app
+public class XmlParameters implements LevelParameters {
+    // Values by resource name
+    private final Map<String, Integer> integers;
+    private final Map<String, Float> fractions;
+    private final Map<String, List<String>> stringArrays;
+
+    public XmlParameters(File... files) throws Exception {
+        integers = new HashMap<>();
+        fractions = new HashMap<>();
+        stringArrays = new HashMap<>();
+        for (File file : files) {
+            parse(file);
+        }
+    }
+
+    private void parse(File file) throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+
+        // Integers
+        NodeList nodes = document.getElementsByTagName("integer");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            integers.put(element.getAttribute("name"), Integer.parseInt(element.getTextContent().trim()));
+        }
+
+        // Fractions (only relative to 1, as percentages)
+        nodes = document.getElementsByTagName("fraction");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            String value = element.getTextContent().trim();
+            fractions.put(element.getAttribute("name"), Float.parseFloat(value.substring(0, value.length() - 1)) / 100.0f);
+        }
+
+        // String arrays
+        nodes = document.getElementsByTagName("string-array");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            NodeList items = element.getElementsByTagName("item");
+            List<String> values = new ArrayList<>();
+            for (int j = 0; j < items.getLength(); j++) {
+                values.add(items.item(j).getTextContent().trim());
+            }
+            stringArrays.put(element.getAttribute("name"), values);
+        }
+    }
+
+    @Override
+    public int getInteger(String name) {
+        Integer value = integers.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown integer resource: " + name);
+        }
+        return value;
+    }
+
+    @Override
+    public float getFraction(String name) {
+        Float value = fractions.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown fraction resource: " + name);
+        }
+        return value;
+    }
+
+    public List<String> getStringArray(String name) {
+        List<String> value = stringArrays.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown string array resource: " + name);
+        }
+        return value;
+    }
+}